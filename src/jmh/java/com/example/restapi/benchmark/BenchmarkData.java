@@ -0,0 +1,82 @@
+package com.example.restapi.benchmark;
+
+import com.example.restapi.entity.ExpenseEntity;
+import com.example.restapi.io.ExpenseRequest;
+import com.example.restapi.io.ExpenseResponse;
+import com.example.restapi.service.ProfileUserDetails;
+import com.example.restapi.util.JwtKeyRing;
+import com.example.restapi.util.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fixture data shared by the benchmarks
+ * @author boroboro01
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static ExpenseRequest expenseRequest() {
+        return ExpenseRequest.builder()
+                .name("Groceries")
+                .note("Weekly shopping at the market")
+                .category("Food")
+                .date(Date.valueOf("2024-05-17"))
+                .amount(new BigDecimal("84.35"))
+                .build();
+    }
+
+    static ExpenseEntity expenseEntity(long id) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return ExpenseEntity.builder()
+                .id(id)
+                .expenseId(UUID.randomUUID().toString())
+                .name("Groceries")
+                .note("Weekly shopping at the market")
+                .category("Food")
+                .date(Date.valueOf("2024-05-17"))
+                .amount(new BigDecimal("84.35"))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    static List<ExpenseResponse> expenseResponses(int size) {
+        List<ExpenseResponse> responses = new ArrayList<>(size);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < size; i++) {
+            responses.add(ExpenseResponse.builder()
+                    .expenseId(UUID.randomUUID().toString())
+                    .name("Expense " + i)
+                    .note("Note for expense " + i)
+                    .category(i % 2 == 0 ? "Food" : "Travel")
+                    .date(Date.valueOf("2024-05-17"))
+                    .amount(new BigDecimal(i + ".25"))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return responses;
+    }
+
+    static ProfileUserDetails profile(long id) {
+        return new ProfileUserDetails(id, UUID.randomUUID().toString(), "user" + id + "@example.com", "", new ArrayList<>());
+    }
+
+    /**
+     * Build a JwtTokenUtil the way Spring would, with a freshly generated ES256 keyring
+     */
+    static JwtTokenUtil jwtTokenUtil() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(new JwtKeyRing(), new SimpleMeterRegistry());
+        jwtTokenUtil.init();
+        return jwtTokenUtil;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.restapi.benchmark;
+
+import com.example.restapi.exceptions.GlobalExceptionHandler;
+import com.example.restapi.exceptions.ResourceNotFoundException;
+import com.example.restapi.io.ErrorObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a not found error, from throwing the exception to building the ErrorObject
+ * @author boroboro01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @Setup
+    public void setup() {
+        globalExceptionHandler = new GlobalExceptionHandler();
+    }
+
+    @Benchmark
+    public ErrorObject handleResourceNotFoundException() {
+        try {
+            throw new ResourceNotFoundException("Expense not found for the id 42");
+        } catch (ResourceNotFoundException e) {
+            return globalExceptionHandler.handleResourceNotFoundException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.restapi.benchmark;
+
+import com.example.restapi.RestapiApplication;
+import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.entity.ExpenseEntity;
+import com.example.restapi.io.ExpenseRequest;
+import com.example.restapi.io.ExpenseResponse;
+import com.example.restapi.mapper.ExpenseMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the explicit ExpenseMapper with the ModelMapper bean declared in RestapiApplication
+ * for both directions of the expense request path.
+ * @author boroboro01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExpenseMappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private ExpenseMapper expenseMapper;
+
+    private ExpenseRequest expenseRequest;
+
+    private ExpenseEntity expenseEntity;
+
+    @Setup
+    public void setup() {
+        modelMapper = new RestapiApplication().modelMapper();
+        expenseMapper = new ExpenseMapper();
+        expenseRequest = BenchmarkData.expenseRequest();
+        expenseEntity = BenchmarkData.expenseEntity(1L);
+        // Let ModelMapper build its type maps outside of the measurement
+        modelMapper.map(modelMapper.map(expenseRequest, ExpenseDTO.class), ExpenseEntity.class);
+        modelMapper.map(modelMapper.map(expenseEntity, ExpenseDTO.class), ExpenseResponse.class);
+    }
+
+    @Benchmark
+    public ExpenseEntity modelMapperRequestToEntity() {
+        return modelMapper.map(modelMapper.map(expenseRequest, ExpenseDTO.class), ExpenseEntity.class);
+    }
+
+    @Benchmark
+    public ExpenseEntity expenseMapperRequestToEntity() {
+        return expenseMapper.toExpenseEntity(expenseMapper.toExpenseDTO(expenseRequest));
+    }
+
+    @Benchmark
+    public ExpenseResponse modelMapperEntityToResponse() {
+        return modelMapper.map(modelMapper.map(expenseEntity, ExpenseDTO.class), ExpenseResponse.class);
+    }
+
+    @Benchmark
+    public ExpenseResponse expenseMapperEntityToResponse() {
+        return expenseMapper.toExpenseResponse(expenseMapper.toExpenseDTO(expenseEntity));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.restapi.benchmark;
+
+import com.example.restapi.service.ProfileUserDetails;
+import com.example.restapi.util.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and the per request verification done by JwtRequestFilter
+ * @author boroboro01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenBenchmark {
+
+    private JwtTokenUtil jwtTokenUtil;
+
+    private ProfileUserDetails profile;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtTokenUtil = BenchmarkData.jwtTokenUtil();
+        profile = BenchmarkData.profile(1L);
+        token = jwtTokenUtil.generateToken(profile);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken(profile);
+    }
+
+    @Benchmark
+    public Claims verifyToken() {
+        return jwtTokenUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public Claims parseTokenCached() {
+        return jwtTokenUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean parseAndValidateToken() {
+        Claims claims = jwtTokenUtil.parseToken(token);
+        return jwtTokenUtil.validateToken(claims, jwtTokenUtil.getPrincipalFromClaims(claims));
+    }
+}
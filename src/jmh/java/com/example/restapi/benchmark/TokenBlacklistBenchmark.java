@@ -0,0 +1,62 @@
+package com.example.restapi.benchmark;
+
+import com.example.restapi.service.RevokedTokenStore;
+import com.example.restapi.service.TokenBlacklistService;
+import com.example.restapi.util.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blacklist lookups under contention, half of the probed tokens are revoked
+ * @author boroboro01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class TokenBlacklistBenchmark {
+
+    @Param({"1000"})
+    public int tokens;
+
+    private TokenBlacklistService tokenBlacklistService;
+
+    private String[] tokenValues;
+
+    private Claims[] tokenClaims;
+
+    @Setup
+    public void setup() {
+        JwtTokenUtil jwtTokenUtil = BenchmarkData.jwtTokenUtil();
+        tokenBlacklistService = new TokenBlacklistService(jwtTokenUtil,
+                new StaticListableBeanFactory().getBeanProvider(RevokedTokenStore.class));
+        tokenBlacklistService.init();
+        tokenValues = new String[tokens];
+        tokenClaims = new Claims[tokens];
+        for (int i = 0; i < tokens; i++) {
+            tokenValues[i] = jwtTokenUtil.generateToken(BenchmarkData.profile(i));
+            tokenClaims[i] = jwtTokenUtil.parseToken(tokenValues[i]);
+            if (i % 2 == 0) {
+                tokenBlacklistService.addTokenToBlacklist(tokenValues[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean isTokenBlacklisted() {
+        int i = ThreadLocalRandom.current().nextInt(tokens);
+        return tokenBlacklistService.isTokenBlacklisted(tokenClaims[i], tokenValues[i]);
+    }
+}
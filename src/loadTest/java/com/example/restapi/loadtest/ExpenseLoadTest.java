@@ -0,0 +1,166 @@
+package com.example.restapi.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed loop load test of GET /expenses, to compare the platform thread pool with the virtual thread mode.
+ * Every user owns one expense named after its email, so a response carrying another user's expense
+ * would show a security context leaking between requests; those are counted as leaks.
+ *
+ * Start the application once per mode, then run for example
+ * ./gradlew loadTest -PbaseUrl=http://localhost:8080/api/v1 -Pconcurrency=1000 -PdurationSeconds=60
+ * @author boroboro01
+ */
+public class ExpenseLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern NAME = Pattern.compile("\"name\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final String baseUrl;
+    private final int users;
+    private final int concurrency;
+    private final Duration duration;
+    private final HttpClient client;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    // Latency histogram in milliseconds, the last bucket collects everything above
+    private final AtomicLongArray latencies = new AtomicLongArray(10_001);
+
+    public ExpenseLoadTest(String baseUrl, int users, int concurrency, Duration duration) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080/api/v1";
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int durationSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        new ExpenseLoadTest(baseUrl, users, concurrency, Duration.ofSeconds(durationSeconds)).run();
+    }
+
+    public void run() throws Exception {
+        String[] tokens = new String[users];
+        String[] names = new String[users];
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < users; i++) {
+            String email = "load-" + runId + "-" + i + "@example.com";
+            post("/register", null, "{\"name\":\"load user\",\"email\":\"" + email + "\",\"password\":\"password\"}");
+            tokens[i] = extract(TOKEN, post("/login", null, "{\"email\":\"" + email + "\",\"password\":\"password\"}"));
+            names[i] = email;
+            post("/expenses", tokens[i], "{\"name\":\"" + email + "\",\"category\":\"load\",\"date\":\"2024-01-01\",\"amount\":1}");
+        }
+        System.out.printf("Prepared %d users, running %d concurrent requests for %s%n", users, concurrency, duration);
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        int next = 0;
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            int user = next++ % users;
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/expenses?size=20"))
+                    .header("Authorization", "Bearer " + tokens[user])
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            CompletableFuture<Void> call = client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .handle((response, failure) -> {
+                        record(sent, response, failure, names[user]);
+                        inFlight.release();
+                        return null;
+                    });
+            pending.add(call);
+            if (pending.size() > 10_000) {
+                pending.removeIf(CompletableFuture::isDone);
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        report(Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private void record(long sent, HttpResponse<String> response, Throwable failure, String expectedName) {
+        int millis = (int) Math.min(latencies.length() - 1, (System.nanoTime() - sent) / 1_000_000);
+        latencies.incrementAndGet(millis);
+        if (failure != null || response.statusCode() != 200) {
+            errors.incrementAndGet();
+            return;
+        }
+        Matcher matcher = NAME.matcher(response.body());
+        while (matcher.find()) {
+            if (!matcher.group(1).equals(expectedName)) {
+                leaks.incrementAndGet();
+                break;
+            }
+        }
+        completed.incrementAndGet();
+    }
+
+    private void report(Duration elapsed) {
+        long total = completed.get() + errors.get();
+        System.out.printf("Requests: %d ok, %d failed, %d cross-user leaks%n", completed.get(), errors.get(), leaks.get());
+        System.out.printf("Throughput: %.1f req/s over %.1f s%n", completed.get() / (elapsed.toMillis() / 1000.0), elapsed.toMillis() / 1000.0);
+        System.out.printf("Latency ms: p50 %d, p90 %d, p99 %d, max %d%n",
+                percentile(total, 0.50), percentile(total, 0.90), percentile(total, 0.99), percentile(total, 1.0));
+        if (leaks.get() > 0) {
+            throw new IllegalStateException("Responses carried expenses of another user");
+        }
+    }
+
+    private int percentile(long total, double fraction) {
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < latencies.length(); i++) {
+            seen += latencies.get(i);
+            if (seen >= rank && seen > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private String post(String path, String token, String body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String extract(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response " + body);
+        }
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.restapi.config;
+
+import com.example.restapi.entity.ExpenseEntity;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves tbl_expenses_seq past the ids that were assigned while tbl_expenses still used IDENTITY.
+ * The pooled optimizer hands out the block below the stored value, so the sequence has to be at least
+ * one allocation ahead of the highest existing id. The single guarded UPDATE is a no-op once migrated.
+ * @author boroboro01
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ExpenseIdSequenceInitializer implements ApplicationRunner {
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        int updated = entityManager.createNativeQuery(
+                        "UPDATE tbl_expenses_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + :allocation + 1 FROM tbl_expenses) " +
+                        "WHERE next_val <= (SELECT COALESCE(MAX(id), 0) + :allocation FROM tbl_expenses)")
+                .setParameter("allocation", ExpenseEntity.ID_ALLOCATION_SIZE)
+                .executeUpdate();
+        if (updated > 0) {
+            log.info("Moved tbl_expenses_seq past the existing expense ids");
+        }
+    }
+}
@@ -1,22 +1,28 @@
 package com.example.restapi.config;
 
 import com.example.restapi.service.CustomUserDetailsService;
+import com.example.restapi.service.ProfileUserDetails;
 import com.example.restapi.service.TokenBlacklistService;
 import com.example.restapi.util.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.Security;
 
 public class JwtRequestFilter extends OncePerRequestFilter {
 
@@ -31,40 +37,99 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.stateless-auth:true}")
+    private boolean statelessAuth;
+
+    private Timer authenticationTimer;
+
+    private Counter blacklistHits;
+
+    /**
+     * Meters are registered once, the request path only increments them
+     */
+    @Override
+    protected void initFilterBean() {
+        authenticationTimer = Timer.builder("jwt.filter")
+                .description("Time spent authenticating the bearer token, excluding the rest of the chain")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        blacklistHits = Counter.builder("jwt.blacklist.hits")
+                .description("Requests rejected because their token was revoked")
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         final String requestTokenHeader = request.getHeader("Authorization");
 
         String jwtToken = null;
         String email = null;
+        Claims claims = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
 
-            if(jwtToken != null && tokenBlacklistService.isTokenBlacklisted(jwtToken)) {
-                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
-                return;
-            }
-
             try {
-                email = jwtTokenUtil.getUsernameFromToken(jwtToken);
+                // The token is parsed and verified exactly once, the claims are reused below
+                claims = jwtTokenUtil.parseToken(jwtToken);
+                email = claims.getSubject();
             } catch (IllegalArgumentException e) {
+                recordFailure(sample, "malformed");
                 throw new RuntimeException("Unable to get jwt token", e);
             } catch (ExpiredJwtException e) {
+                recordFailure(sample, "expired");
                 throw new RuntimeException("Jwt token has expired", e);
+            } catch (JwtException e) {
+                recordFailure(sample, "invalid");
+                throw e;
+            }
+
+            if (tokenBlacklistService.isTokenBlacklisted(claims, jwtToken)) {
+                blacklistHits.increment();
+                sample.stop(authenticationTimer);
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
             }
 
         }
 
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            // In stateless mode the principal comes from the verified claims, tokens without
+            // the profile claims (or stateful mode) fall back to the bounded principal cache
+            ProfileUserDetails userDetails = statelessAuth ? jwtTokenUtil.getPrincipalFromClaims(claims) : null;
+            if (userDetails == null) {
+                userDetails = userDetailsService.loadCachedUserByUsername(email);
+            }
 
-            if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(email, null, userDetails.getAuthorities());
+            if (jwtTokenUtil.validateToken(claims, userDetails)) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                // A fresh context per request, never mutate one that another thread may share
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authToken);
+                SecurityContextHolder.setContext(context);
+            } else {
+                validationFailure("rejected").increment();
             }
         }
+        sample.stop(authenticationTimer);
         filterChain.doFilter(request, response);
     }
+
+    private void recordFailure(Timer.Sample sample, String reason) {
+        sample.stop(authenticationTimer);
+        validationFailure(reason).increment();
+    }
+
+    private Counter validationFailure(String reason) {
+        // Counters are cached by the registry, looking one up by its tags does not allocate a new meter
+        return Counter.builder("jwt.validation.failures")
+                .description("Bearer tokens that failed verification or validation")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,108 @@
+package com.example.restapi.config;
+
+import com.example.restapi.exceptions.QueryBudgetExceededException;
+import com.example.restapi.util.QueryStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the statements and DB time of every http request and flags the ones over the thresholds:
+ * too many statements, a single slow statement, or the same statement repeated (N+1).
+ * With jpa.query-stats.strict=true a flagged request fails with QueryBudgetExceededException instead of
+ * only logging, meant for tests that pin the statement count of endpoints such as GET /expenses.
+ * Only the request thread is counted: a StreamingResponseBody (GET /expenses/export) or any other async
+ * work runs on another thread after the filter returned, its statements are neither counted nor checked.
+ * @author boroboro01
+ */
+@Component
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    @Value("${jpa.query-stats.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jpa.query-stats.max-statements:20}")
+    private int maxStatements;
+
+    @Value("${jpa.query-stats.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    @Value("${jpa.query-stats.repeated-statement-threshold:5}")
+    private int repeatedStatementThreshold;
+
+    @Value("${jpa.query-stats.strict:false}")
+    private boolean strict;
+
+    /**
+     * Bulk endpoints run many statements by design, they are not checked
+     */
+    @Value("${jpa.query-stats.excluded-paths:}")
+    private List<String> excludedPaths;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || excludedPaths.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        QueryStats.begin();
+        QueryStats stats;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats = QueryStats.end();
+        }
+        List<String> violations = findViolations(stats);
+        if (violations.isEmpty()) {
+            log.debug("{} {} ran {} statements in {} ms", request.getMethod(), request.getRequestURI(),
+                    stats.getStatementCount(), stats.getTotalMillis());
+            return;
+        }
+        String message = String.format("%s %s ran %d statements in %d ms: %s", request.getMethod(), request.getRequestURI(),
+                stats.getStatementCount(), stats.getTotalMillis(), String.join("; ", violations));
+        if (strict) {
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private List<String> findViolations(QueryStats stats) {
+        List<String> violations = new ArrayList<>();
+        if (stats.getStatementCount() > maxStatements) {
+            violations.add("more than " + maxStatements + " statements");
+        }
+        if (stats.getSlowestMillis() > slowQueryMs) {
+            violations.add(String.format("slowest %d ms with %d binds [%s]", stats.getSlowestMillis(),
+                    stats.getSlowestBindCount(), abbreviate(stats.getSlowestShape())));
+        }
+        Map.Entry<String, Integer> repeated = stats.getMostRepeatedShape();
+        if (repeated != null && repeated.getValue() >= repeatedStatementThreshold) {
+            violations.add(String.format("possible N+1, %d times [%s]", repeated.getValue(), abbreviate(repeated.getKey())));
+        }
+        return violations;
+    }
+
+    private static String abbreviate(String sql) {
+        if (sql == null || sql.length() <= MAX_LOGGED_SQL_LENGTH) {
+            return sql;
+        }
+        return sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.restapi.config;
+
+import com.example.restapi.util.QueryStats;
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook feeding QueryStats. Registered twice in application.properties: as the statement
+ * inspector, which sees the SQL of every prepared statement, and as an auto session listener, which
+ * brackets every JDBC execution so its time can be recorded. Both are no-ops on threads that are not
+ * collecting, so they cost next to nothing outside of http requests.
+ * @author boroboro01
+ */
+public class QueryStatsInspector implements StatementInspector, SessionEventListener {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.statementPrepared(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.executionStarted();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.executionEnded();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
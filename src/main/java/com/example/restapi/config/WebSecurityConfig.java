@@ -1,7 +1,11 @@
 package com.example.restapi.config;
 
 import com.example.restapi.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,10 +25,30 @@ public class WebSecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    /**
+     * 0 uses half of the cores, the other half stays available for the rest of the api
+     */
+    @Value("${auth.password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${auth.password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${auth.password-hashing.timeout-ms:5000}")
+    private long passwordHashingTimeoutMs;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception {
         return httpSecurity.csrf(csrf -> csrf.disable())
-                .authorizeHttpRequests(auth -> auth.requestMatchers("/login", "/register").permitAll().anyRequest().authenticated())
+                .authorizeHttpRequests(auth -> auth.requestMatchers("/login", "/register", "/refresh", "/.well-known/jwks.json").permitAll()
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                        .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class)
                 .httpBasic(Customizer.withDefaults())
@@ -46,11 +70,18 @@ public class WebSecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(customUserDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Stored hashes with a lower cost than auth.bcrypt.strength are re-hashed on a successful login
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
         return authProvider;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), threads, passwordHashingQueueCapacity, passwordHashingTimeoutMs);
+        Gauge.builder("password.hashing.queue.depth", encoder, BoundedPasswordEncoder::getQueueDepth)
+                .description("Password hashes waiting for a thread, logins get 503 once it reaches auth.password-hashing.queue-capacity")
+                .register(meterRegistry);
+        return encoder;
     }
 }
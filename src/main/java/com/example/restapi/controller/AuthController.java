@@ -5,32 +5,35 @@ import com.example.restapi.io.AuthRequest;
 import com.example.restapi.io.AuthResponse;
 import com.example.restapi.io.ProfileRequest;
 import com.example.restapi.io.ProfileResponse;
-import com.example.restapi.service.CustomUserDetailsService;
+import com.example.restapi.io.RefreshTokenRequest;
+import com.example.restapi.mapper.ProfileMapper;
 import com.example.restapi.service.ProfileService;
+import com.example.restapi.service.ProfileUserDetails;
+import com.example.restapi.service.RefreshTokenService;
 import com.example.restapi.service.TokenBlacklistService;
+import com.example.restapi.util.JwtKeyRing;
 import com.example.restapi.util.JwtTokenUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.UUID;
+import java.time.Duration;
+import java.util.Map;
 
 @RestController
 @Slf4j
 @RequiredArgsConstructor
 public class AuthController {
 
-    private final ModelMapper modelMapper;
+    private final ProfileMapper profileMapper;
 
     private final ProfileService profileService;
 
@@ -38,10 +41,12 @@ public class AuthController {
 
     private final JwtTokenUtil jwtTokenUtil;
 
-    private final CustomUserDetailsService userDetailsService;
-
     private final TokenBlacklistService tokenBlacklistService;
 
+    private final RefreshTokenService refreshTokenService;
+
+    private final JwtKeyRing jwtKeyRing;
+
     /**
      * API endpoint to register new user
      * @param profileRequest (profile request)
@@ -60,34 +65,62 @@ public class AuthController {
     /**
      * API endpoint to login user
      * @param authRequest (auth request)
-     * @return profileResponse (profile response)
+     * @return authResponse (short lived access token and refresh token)
      */
     @PostMapping("/login")
-    public AuthResponse authenticateProfile(@RequestBody AuthRequest authRequest) throws Exception {
-        log.info("API /login is called {}", authRequest);
-        authenticate(authRequest);
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.getEmail());
+    public AuthResponse authenticateProfile(@RequestBody AuthRequest authRequest) {
+        log.info("API /login is called for {}", authRequest.getEmail());
+        // Failed credentials propagate as AuthenticationException and are answered with 401
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword()));
+        // The provider already loaded the profile, reuse it instead of a second lookup
+        final ProfileUserDetails userDetails = (ProfileUserDetails) authentication.getPrincipal();
         final String token = jwtTokenUtil.generateToken(userDetails);
-        return new AuthResponse(token, authRequest.getEmail());
+        final String refreshToken = refreshTokenService.issue(userDetails);
+        return new AuthResponse(token, userDetails.getUsername(), refreshToken, jwtTokenUtil.getAccessTokenTtlSeconds());
     }
 
-    private void authenticate(AuthRequest authRequest) throws Exception {
-        try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword()));
-        } catch (DisabledException e) {
-            throw new Exception("Profile disable", e);
-        } catch (BadCredentialsException e) {
-
-        }
+    /**
+     * API endpoint to exchange a refresh token for a new access token, the refresh token is rotated
+     * @param refreshTokenRequest (refresh token request)
+     * @return authResponse (new access token and new refresh token)
+     */
+    @PostMapping("/refresh")
+    public AuthResponse refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        log.info("API /refresh is called");
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+        final String token = jwtTokenUtil.generateToken(rotation.principal());
+        return new AuthResponse(token, rotation.principal().getUsername(), rotation.refreshToken(),
+                jwtTokenUtil.getAccessTokenTtlSeconds());
     }
 
+    /**
+     * API endpoint to signout, revokes the access token and, when given, the refresh token
+     * @param request (http request)
+     * @param refreshTokenRequest (optional refresh token request)
+     */
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PostMapping("/signout")
-    public void signout(HttpServletRequest request) {
+    public void signout(HttpServletRequest request, @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
         String jwtToken = extractJwtTokenFromRequest(request);
         if (jwtToken != null) {
             tokenBlacklistService.addTokenToBlacklist(jwtToken);
         }
+        if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshTokenRequest.getRefreshToken());
+        }
+    }
+
+    /**
+     * API endpoint to publish the public keys that verify the access tokens of this node
+     * @return jwks (json web key set)
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        // The next key is published a full rotation ahead, caching for a few minutes is safe
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyRing.getJwks());
     }
 
     private String extractJwtTokenFromRequest(HttpServletRequest request) {
@@ -104,7 +137,7 @@ public class AuthController {
      * @return profileDTO
      */
     private ProfileDTO mapToProfileDTO(ProfileRequest profileRequest) {
-        return modelMapper.map(profileRequest, ProfileDTO.class);
+        return profileMapper.toProfileDTO(profileRequest);
     }
 
     /**
@@ -113,6 +146,6 @@ public class AuthController {
      * @return profileResponse
      */
     private ProfileResponse mapToProfileResponse(ProfileDTO profileDTO) {
-        return modelMapper.map(profileDTO, ProfileResponse.class);
+        return profileMapper.toProfileResponse(profileDTO);
     }
 }
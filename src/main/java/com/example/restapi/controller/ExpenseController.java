@@ -1,18 +1,75 @@
 package com.example.restapi.controller;
 
+import com.example.restapi.dto.ExpenseBatchEntryDTO;
+import com.example.restapi.dto.ExpenseBatchItemDTO;
+import com.example.restapi.dto.ExpenseChangesDTO;
 import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.dto.ExpenseFilterDTO;
+import com.example.restapi.dto.ExpenseImportResultDTO;
+import com.example.restapi.dto.ExpensePageDTO;
+import com.example.restapi.dto.ExpenseRollupDTO;
+import com.example.restapi.dto.ExpenseRollupVerificationDTO;
+import com.example.restapi.dto.ExpenseSummaryDTO;
+import com.example.restapi.dto.ExpenseSummaryGroupBy;
+import com.example.restapi.dto.ExpenseVersionDTO;
+import com.example.restapi.dto.ExportFormat;
+import com.example.restapi.exceptions.InvalidRequestException;
+import com.example.restapi.io.ExpenseBatchItemResult;
+import com.example.restapi.io.ExpenseBatchResponse;
+import com.example.restapi.io.ExpenseBatchUpdateRequest;
+import com.example.restapi.io.ExpenseBulkDeleteRequest;
+import com.example.restapi.io.ExpenseBulkDeleteResponse;
+import com.example.restapi.io.ExpenseChangesResponse;
+import com.example.restapi.io.ExpenseImportError;
+import com.example.restapi.io.ExpenseImportResponse;
+import com.example.restapi.io.ExpensePageResponse;
+import com.example.restapi.io.ExpensePatchRequest;
+import com.example.restapi.io.ExpenseRollupResponse;
+import com.example.restapi.io.ExpenseRollupVerificationResponse;
+import com.example.restapi.io.ExpenseSummaryResponse;
 import com.example.restapi.io.ExpenseRequest;
 import com.example.restapi.io.ExpenseResponse;
+import com.example.restapi.mapper.ExpenseMapper;
+import com.example.restapi.service.ExpenseImportService;
+import com.example.restapi.service.ExpenseRollupService;
 import com.example.restapi.service.ExpenseService;
+import com.example.restapi.util.ETagUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This is controller class for Expense module
@@ -23,36 +80,218 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ExpenseController {
 
+    private static final Set<String> BATCH_FIELDS = Set.of("creates", "updates", "deletes");
+
     private final ExpenseService expenseService;
-    private final ModelMapper modelMapper;
+    private final ExpenseImportService expenseImportService;
+    private final ExpenseRollupService expenseRollupService;
+    private final ExpenseMapper expenseMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${expense.batch.max-items:10000}")
+    private int maxBatchItems;
 
     /**
-     * It will fetch the expenses from database
-     * @return list
+     * It will fetch one page of expenses from database, optionally filtered
+     * @param category (exact category)
+     * @param from (first date, inclusive, yyyy-MM-dd)
+     * @param to (last date, inclusive, yyyy-MM-dd)
+     * @param minAmount (lowest amount, inclusive)
+     * @param maxAmount (highest amount, inclusive)
+     * @param cursor (next cursor returned by the previous page)
+     * @param size (page size)
+     * @param webRequest (for the If-None-Match and If-Modified-Since headers)
+     * @return ExpensePageResponse, or 304 when the expenses matching the filter did not change
      */
     @GetMapping("/expenses")
-    public List<ExpenseResponse> getExpenses() {
-        log.info("API GET /expenses called");
+    public ResponseEntity<ExpensePageResponse> getExpenses(@RequestParam(required = false) String category,
+                                           @RequestParam(required = false) Date from,
+                                           @RequestParam(required = false) Date to,
+                                           @RequestParam(required = false) BigDecimal minAmount,
+                                           @RequestParam(required = false) BigDecimal maxAmount,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size,
+                                           WebRequest webRequest) {
+        log.info("API GET /expenses called with cursor {} and size {}", cursor, size);
+        ExpenseFilterDTO filter = mapToExpenseFilter(category, from, to, minAmount, maxAmount);
+        // Validate against the count and latest update before loading any row.
+        // Only the ETag is used, a delete does not move the latest update so If-Modified-Since would miss it.
+        ExpenseVersionDTO version = expenseService.getExpensesVersion(filter);
+        String eTag = ETagUtil.forSet(version.getCount(), version.getLastModified());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         // Call the service method
-        List<ExpenseDTO> list = expenseService.getAllExpenses();
-        log.info("Printing the data from service {}", list);
+        ExpensePageDTO page = expenseService.getExpenses(filter, cursor, size);
+        log.info("Fetched {} expenses from service", page.getExpenses().size());
         // Convert the Expense DTO to Expense Response
-        List<ExpenseResponse> response = list.stream().map(expenseDTO -> mapToExpenseResponse(expenseDTO)).collect(Collectors.toList());
-        // Return the list/response
-        return response;
+        List<ExpenseResponse> response = page.getExpenses().stream().map(expenseDTO -> mapToExpenseResponse(expenseDTO)).collect(Collectors.toList());
+        // Return the page/response
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(ExpensePageResponse.builder()
+                        .expenses(response)
+                        .nextCursor(page.getNextCursor())
+                        .build());
+    }
+
+    /**
+     * It will return the expenses created, updated or deleted since the previous sync.
+     * Changes are held back for expense.sync.safety-lag-ms, this is best effort: a write whose commit comes
+     * later than the lag, or a server clock skewed beyond it, can be missed, so clients should still run a full
+     * sync (no since) from time to time.
+     * @param since (cursor returned by the previous sync, omit for a full sync)
+     * @param size (maximum number of upserts and of deletes per call)
+     * @return ExpenseChangesResponse, call again with nextCursor while hasMore is true
+     */
+    @GetMapping("/expenses/changes")
+    public ExpenseChangesResponse getExpenseChanges(@RequestParam(required = false) String since,
+                                                    @RequestParam(required = false) Integer size) {
+        log.info("API GET /expenses/changes called since {} with size {}", since, size);
+        ExpenseChangesDTO changes = expenseService.getExpenseChanges(since, size);
+        return ExpenseChangesResponse.builder()
+                .upserts(changes.getUpserts().stream().map(expenseDTO -> mapToExpenseResponse(expenseDTO)).collect(Collectors.toList()))
+                .deletedExpenseIds(changes.getDeletedExpenseIds())
+                .nextCursor(changes.getNextCursor())
+                .hasMore(changes.getHasMore())
+                .build();
+    }
+
+    /**
+     * It will return the totals, count, min, max and average of the expenses per bucket.
+     * With fromRollups, category and month summaries over whole months are read from the maintained rollups,
+     * one row per bucket: they leave min and max empty and only count the expenses having an amount and a date.
+     * @param groupBy (category, day, week or month)
+     * @param from (first date, inclusive, yyyy-MM-dd)
+     * @param to (last date, inclusive, yyyy-MM-dd)
+     * @param fromRollups (read the rollups instead of aggregating the expenses, false by default)
+     * @return list
+     */
+    @GetMapping("/expenses/summary")
+    public List<ExpenseSummaryResponse> getExpenseSummary(@RequestParam(defaultValue = "category") String groupBy,
+                                                          @RequestParam(required = false) Date from,
+                                                          @RequestParam(required = false) Date to,
+                                                          @RequestParam(defaultValue = "false") boolean fromRollups) {
+        log.info("API GET /expenses/summary called with groupBy {} from {} to {} fromRollups {}", groupBy, from, to, fromRollups);
+        if (from != null && to != null && from.after(to)) {
+            throw new InvalidRequestException("The from date must not be after the to date");
+        }
+        List<ExpenseSummaryDTO> summary = expenseService.getExpenseSummary(ExpenseSummaryGroupBy.fromParameter(groupBy), from, to, fromRollups);
+        return summary.stream().map(summaryDTO -> mapToExpenseSummaryResponse(summaryDTO)).collect(Collectors.toList());
+    }
+
+    /**
+     * It will return the maintained monthly rollups per category, one row read per bucket
+     * @param from (first month, inclusive, yyyy-MM)
+     * @param to (last month, inclusive, yyyy-MM)
+     * @return list
+     */
+    @GetMapping("/expenses/rollups")
+    public List<ExpenseRollupResponse> getExpenseRollups(@RequestParam(required = false) String from,
+                                                         @RequestParam(required = false) String to) {
+        log.info("API GET /expenses/rollups called from {} to {}", from, to);
+        YearMonth fromMonth = parseMonth(from, YearMonth.of(1000, 1));
+        YearMonth toMonth = parseMonth(to, YearMonth.of(9999, 12));
+        if (fromMonth.isAfter(toMonth)) {
+            throw new InvalidRequestException("The from month must not be after the to month");
+        }
+        List<ExpenseRollupDTO> rollups = expenseRollupService.getRollups(Date.valueOf(fromMonth.atDay(1)), Date.valueOf(toMonth.atDay(1)));
+        return rollups.stream().map(rollupDTO -> mapToExpenseRollupResponse(rollupDTO)).collect(Collectors.toList());
+    }
+
+    /**
+     * It will compare the maintained rollups with a full aggregation of the expenses
+     * @return verification result
+     */
+    @GetMapping("/expenses/rollups/verify")
+    public ExpenseRollupVerificationResponse verifyExpenseRollups() {
+        log.info("API GET /expenses/rollups/verify called");
+        return mapToVerificationResponse(expenseRollupService.verifyRollups());
+    }
+
+    /**
+     * It will recompute the rollups from the expenses
+     * @return verification result after the rebuild
+     */
+    @PostMapping("/expenses/rollups/rebuild")
+    public ExpenseRollupVerificationResponse rebuildExpenseRollups() {
+        log.info("API POST /expenses/rollups/rebuild called");
+        return mapToVerificationResponse(expenseRollupService.rebuildRollups());
+    }
+
+    /**
+     * It will stream all the expenses as NDJSON or CSV, optionally gzip compressed.
+     * Rows are written as they are read from the database, the response is never buffered.
+     * The body runs on an MVC async thread after the request thread returned, so its statements are not
+     * counted by QueryStatsFilter.
+     * @param format (ndjson or csv)
+     * @param gzip (compress the response)
+     * @return streaming body
+     */
+    @GetMapping("/expenses/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("API GET /expenses/export called with format {} and gzip {}", format, gzip);
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192);
+                expenseService.exportExpenses(exportFormat, gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                expenseService.exportExpenses(exportFormat, outputStream);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses." + exportFormat.getFileExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * It will import expenses from a CSV or NDJSON upload.
+     * The body is parsed as it arrives and is never buffered, a gzip Content-Encoding is accepted.
+     * @param format (csv or ndjson)
+     * @param request (http request, its body is the upload)
+     * @return expenseImportResponse
+     */
+    @PostMapping("/expenses/import")
+    public ExpenseImportResponse importExpenses(@RequestParam(defaultValue = "csv") String format,
+                                                HttpServletRequest request) throws IOException {
+        log.info("API POST /expenses/import called with format {}", format);
+        ExportFormat importFormat = ExportFormat.fromParameter(format);
+        InputStream inputStream = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            inputStream = new GZIPInputStream(inputStream, 8192);
+        }
+        ExpenseImportResultDTO result = expenseImportService.importExpenses(importFormat, inputStream);
+        return mapToImportResponse(result);
     }
 
     /**
      * It will fetch the single expense from database
      * @param expenseId
-     * @return ExpenseResponse
+     * @param webRequest (for the If-None-Match and If-Modified-Since headers)
+     * @return ExpenseResponse, or 304 when the expense did not change
      */
     @GetMapping("/expenses/{expenseId}")
-    public ExpenseResponse getExpenseByExpenseId(@PathVariable String expenseId) {
+    public ResponseEntity<ExpenseResponse> getExpenseByExpenseId(@PathVariable String expenseId, WebRequest webRequest) {
         log.info("API GET /expenses/{} called", expenseId);
         ExpenseDTO expenseDTO = expenseService.getExpenseByExpenseId(expenseId);
         log.info("Printing the expense details {}", expenseDTO);
-        return mapToExpenseResponse(expenseDTO);
+        String eTag = ETagUtil.forRow(expenseDTO.getVersion());
+        if (webRequest.checkNotModified(eTag, ETagUtil.lastModified(expenseDTO.getUpdatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(mapToExpenseResponse(expenseDTO));
     }
 
     /**
@@ -87,15 +326,360 @@ public class ExpenseController {
      * It will update the expense details to database
      * @param updateRequest (expense request)
      * @param expenseId (expense id)
+     * @param ifMatch (ETag of the version being replaced, optional)
      * @return expenseResponse
      */
     @PutMapping("/expenses/{expenseId}")
-    public ExpenseResponse updateExpenseDetails(@RequestBody ExpenseRequest updateRequest, @PathVariable String expenseId) {
+    public ResponseEntity<ExpenseResponse> updateExpenseDetails(@Valid @RequestBody ExpenseRequest updateRequest, @PathVariable String expenseId,
+                                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("API PUT /expenses/{} request body {}", expenseId, updateRequest);
         ExpenseDTO updateExpenseDTO = mapToExpenseDTO(updateRequest);
-        expenseService.updateExpenseDetails(updateExpenseDTO, expenseId);
-        log.info("Printing the updated expense DTO details {}", updateExpenseDTO);
-        return mapToExpenseResponse(updateExpenseDTO);
+        ExpenseDTO updatedExpenseDTO = expenseService.updateExpenseDetails(updateExpenseDTO, expenseId, ETagUtil.parseIfMatch(ifMatch));
+        log.info("Printing the updated expense DTO details {}", updatedExpenseDTO);
+        return ResponseEntity.ok()
+                .eTag(ETagUtil.forRow(updatedExpenseDTO.getVersion()))
+                .body(mapToExpenseResponse(updatedExpenseDTO));
+    }
+
+    /**
+     * It will update only the given fields of the expense with a single UPDATE
+     * @param patchRequest (fields to change, absent fields are left unchanged)
+     * @param expenseId (expense id)
+     * @param ifMatch (ETag of the version being changed, optional)
+     * @return 204, with the new ETag when If-Match was given
+     */
+    @PatchMapping("/expenses/{expenseId}")
+    public ResponseEntity<Void> patchExpenseDetails(@Valid @RequestBody ExpensePatchRequest patchRequest, @PathVariable String expenseId,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("API PATCH /expenses/{} request body {}", expenseId, patchRequest);
+        Long expectedVersion = ETagUtil.parseIfMatch(ifMatch);
+        expenseService.patchExpenseDetails(expenseMapper.toExpenseDTO(patchRequest), expenseId, expectedVersion);
+        if (expectedVersion == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(ETagUtil.forRow(expectedVersion + 1)).build();
+    }
+
+    /**
+     * It will delete the expenses with the given ids, or every expense matching the filter, in one statement
+     * @param deleteRequest (expense ids, or at least one filter)
+     * @return number of deleted expenses
+     */
+    @PostMapping("/expenses:delete")
+    public ExpenseBulkDeleteResponse deleteExpenses(@RequestBody ExpenseBulkDeleteRequest deleteRequest) {
+        ExpenseFilterDTO filter = mapToExpenseFilter(deleteRequest.getCategory(), deleteRequest.getFrom(), deleteRequest.getTo(),
+                deleteRequest.getMinAmount(), deleteRequest.getMaxAmount());
+        boolean hasFilter = filter.getCategory() != null || filter.getFromDate() != null || filter.getToDate() != null
+                || filter.getMinAmount() != null || filter.getMaxAmount() != null;
+        List<String> expenseIds = deleteRequest.getExpenseIds();
+        log.info("API POST /expenses:delete called with {} ids and filter {}", expenseIds == null ? 0 : expenseIds.size(), filter);
+        if ((expenseIds == null) == !hasFilter) {
+            throw new InvalidRequestException("Either expenseIds or at least one filter is required, not both");
+        }
+        int deleted;
+        if (expenseIds != null) {
+            if (expenseIds.size() > maxBatchItems) {
+                throw new InvalidRequestException("A bulk delete can contain at most " + maxBatchItems + " ids");
+            }
+            if (expenseIds.contains(null)) {
+                throw new InvalidRequestException("Expense id is required");
+            }
+            deleted = expenseService.deleteExpenses(Set.copyOf(expenseIds));
+        } else {
+            deleted = expenseService.deleteExpensesMatching(filter);
+        }
+        return ExpenseBulkDeleteResponse.builder()
+                .deleted(deleted)
+                .build();
+    }
+
+    /**
+     * It will create, update and delete expenses in bulk, all or nothing.
+     * The body is read with a streaming parser while the batch is written, every item is validated as soon as it
+     * is read and the valid ones are written as soon as a chunk of batch_size of them is full, the sections are
+     * applied in the order they appear in the body. Invalid or missing items are reported in the results and do
+     * not stop the rest of the batch, but a database error or a body that cannot be read, or that goes over
+     * expense.batch.max-items, rolls back every item already written.
+     * @param request (http request, its body is the ExpenseBatchRequest json)
+     * @return expenseBatchResponse
+     */
+    @PostMapping(value = "/expenses:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ExpenseBatchResponse processExpenseBatch(HttpServletRequest request) throws IOException {
+        List<ExpenseBatchItemResult> results = new ArrayList<>();
+        List<ExpenseBatchItemDTO> processed;
+        try (JsonParser parser = objectMapper.createParser(request.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidRequestException("The batch must be a JSON object");
+            }
+            processed = expenseService.processBatch(new BatchEntryReader(parser, results));
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("Malformed batch: " + e.getOriginalMessage());
+        }
+        log.info("API POST /expenses:batch called with {} items ({} invalid)", processed.size() + results.size(), results.size());
+
+        processed.forEach(item -> results.add(mapToBatchItemResult(item)));
+        results.sort(Comparator.comparing(ExpenseBatchItemResult::getOperation).thenComparing(ExpenseBatchItemResult::getIndex));
+        int failed = (int) results.stream().filter(result -> !result.getErrors().isEmpty()).count();
+        return ExpenseBatchResponse.builder()
+                .succeeded(results.size() - failed)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Build the search filter from the query parameters and reject empty ranges
+     * @return expenseFilterDTO
+     */
+    private ExpenseFilterDTO mapToExpenseFilter(String category, Date from, Date to, BigDecimal minAmount, BigDecimal maxAmount) {
+        if (from != null && to != null && from.after(to)) {
+            throw new InvalidRequestException("The from date must not be after the to date");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new InvalidRequestException("The minAmount must not be greater than the maxAmount");
+        }
+        return ExpenseFilterDTO.builder()
+                .category(category)
+                .fromDate(from)
+                .toDate(to)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .build();
+    }
+
+    /**
+     * Validate one batch item against the ExpenseRequest constraints
+     * @param expenseRequest (expense request)
+     * @return validation messages, empty when valid
+     */
+    private List<String> validate(ExpenseRequest expenseRequest) {
+        if (expenseRequest == null) {
+            return List.of("Expense details are required");
+        }
+        Set<ConstraintViolation<ExpenseRequest>> violations = validator.validate(expenseRequest);
+        return violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.toList());
+    }
+
+    /**
+     * Pull parser over the arrays of the batch body, it returns the valid items one by one in body order
+     * and adds the invalid ones to the results, so only the chunk being written is held in memory
+     */
+    private class BatchEntryReader implements Iterator<ExpenseBatchEntryDTO> {
+
+        private final JsonParser parser;
+        private final List<ExpenseBatchItemResult> results;
+        private String field;
+        private int index;
+        private int items;
+        private ExpenseBatchEntryDTO next;
+        private boolean done;
+
+        BatchEntryReader(JsonParser parser, List<ExpenseBatchItemResult> results) {
+            this.parser = parser;
+            this.results = results;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && !done) {
+                    next = readEntry();
+                }
+            } catch (JsonProcessingException e) {
+                throw new InvalidRequestException("Malformed batch: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public ExpenseBatchEntryDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ExpenseBatchEntryDTO entry = next;
+            next = null;
+            return entry;
+        }
+
+        /**
+         * Read the next item of the current array, or move to the next array of the batch
+         * @return valid entry, null when the item was invalid or when no item was read
+         */
+        private ExpenseBatchEntryDTO readEntry() throws IOException {
+            if (field == null) {
+                if (parser.nextToken() != JsonToken.FIELD_NAME) {
+                    done = true;
+                    return null;
+                }
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_NULL || !BATCH_FIELDS.contains(name)) {
+                    parser.skipChildren();
+                    return null;
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    throw new InvalidRequestException("The " + name + " of the batch must be an array");
+                }
+                field = name;
+                index = 0;
+                return null;
+            }
+            if (parser.nextToken() == JsonToken.END_ARRAY) {
+                field = null;
+                return null;
+            }
+            if (++items > maxBatchItems) {
+                throw new InvalidRequestException("A batch can contain at most " + maxBatchItems + " items");
+            }
+            int item = index++;
+            return switch (field) {
+                case "creates" -> readBatchCreate(parser, item, results);
+                case "updates" -> readBatchUpdate(parser, item, results);
+                default -> readBatchDelete(parser, item, results);
+            };
+        }
+    }
+
+    private ExpenseBatchEntryDTO readBatchCreate(JsonParser parser, int index, List<ExpenseBatchItemResult> results) throws IOException {
+        ExpenseRequest create = parser.readValueAs(ExpenseRequest.class);
+        List<String> errors = validate(create);
+        if (!errors.isEmpty()) {
+            results.add(invalidBatchItem(ExpenseBatchItemDTO.CREATE, index, null, errors));
+            return null;
+        }
+        return ExpenseBatchEntryDTO.builder()
+                .operation(ExpenseBatchItemDTO.CREATE)
+                .index(index)
+                .expense(mapToExpenseDTO(create))
+                .build();
+    }
+
+    private ExpenseBatchEntryDTO readBatchUpdate(JsonParser parser, int index, List<ExpenseBatchItemResult> results) throws IOException {
+        ExpenseBatchUpdateRequest update = parser.readValueAs(ExpenseBatchUpdateRequest.class);
+        String expenseId = update == null ? null : update.getExpenseId();
+        List<String> errors = expenseId == null ? List.of("Expense id is required") : validate(update.getExpense());
+        if (!errors.isEmpty()) {
+            results.add(invalidBatchItem(ExpenseBatchItemDTO.UPDATE, index, expenseId, errors));
+            return null;
+        }
+        return ExpenseBatchEntryDTO.builder()
+                .operation(ExpenseBatchItemDTO.UPDATE)
+                .index(index)
+                .expenseId(expenseId)
+                .expense(mapToExpenseDTO(update.getExpense()))
+                .build();
+    }
+
+    private ExpenseBatchEntryDTO readBatchDelete(JsonParser parser, int index, List<ExpenseBatchItemResult> results) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            results.add(invalidBatchItem(ExpenseBatchItemDTO.DELETE, index, null, List.of("Expense id is required")));
+            return null;
+        }
+        return ExpenseBatchEntryDTO.builder()
+                .operation(ExpenseBatchItemDTO.DELETE)
+                .index(index)
+                .expenseId(parser.getText())
+                .build();
+    }
+
+    private ExpenseBatchItemResult invalidBatchItem(String operation, int index, String expenseId, List<String> errors) {
+        return ExpenseBatchItemResult.builder()
+                .operation(operation)
+                .index(index)
+                .expenseId(expenseId)
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Mapper method for converting ExpenseBatchItemDTO object to ExpenseBatchItemResult
+     * @param batchItem (expense batch item dto)
+     * @return expenseBatchItemResult
+     */
+    private ExpenseBatchItemResult mapToBatchItemResult(ExpenseBatchItemDTO batchItem) {
+        return ExpenseBatchItemResult.builder()
+                .operation(batchItem.getOperation())
+                .index(batchItem.getIndex())
+                .expenseId(batchItem.getExpenseId())
+                .statusCode(batchItem.getStatusCode())
+                .errors(batchItem.getErrors())
+                .build();
+    }
+
+    private static YearMonth parseMonth(String month, YearMonth defaultMonth) {
+        if (month == null || month.isBlank()) {
+            return defaultMonth;
+        }
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid month " + month + ", expected yyyy-MM");
+        }
+    }
+
+    /**
+     * Mapper method for converting ExpenseRollupDTO object to ExpenseRollupResponse
+     * @param rollupDTO (expense rollup dto)
+     * @return expenseRollupResponse
+     */
+    private ExpenseRollupResponse mapToExpenseRollupResponse(ExpenseRollupDTO rollupDTO) {
+        return ExpenseRollupResponse.builder()
+                .month(rollupDTO.getMonth())
+                .category(rollupDTO.getCategory())
+                .total(rollupDTO.getTotal())
+                .count(rollupDTO.getCount())
+                .build();
+    }
+
+    /**
+     * Mapper method for converting ExpenseRollupVerificationDTO object to ExpenseRollupVerificationResponse
+     * @param verificationDTO (expense rollup verification dto)
+     * @return expenseRollupVerificationResponse
+     */
+    private ExpenseRollupVerificationResponse mapToVerificationResponse(ExpenseRollupVerificationDTO verificationDTO) {
+        return ExpenseRollupVerificationResponse.builder()
+                .bucketsChecked(verificationDTO.getBucketsChecked())
+                .mismatches(verificationDTO.getMismatches())
+                .build();
+    }
+
+    /**
+     * Mapper method for converting ExpenseSummaryDTO object to ExpenseSummaryResponse
+     * @param summaryDTO (expense summary dto)
+     * @return expenseSummaryResponse
+     */
+    private ExpenseSummaryResponse mapToExpenseSummaryResponse(ExpenseSummaryDTO summaryDTO) {
+        return ExpenseSummaryResponse.builder()
+                .bucket(summaryDTO.getBucket())
+                .count(summaryDTO.getCount())
+                .total(summaryDTO.getTotal())
+                .min(summaryDTO.getMin())
+                .max(summaryDTO.getMax())
+                .average(summaryDTO.getAverage())
+                .build();
+    }
+
+    /**
+     * Mapper method for converting ExpenseImportResultDTO object to ExpenseImportResponse
+     * @param result (expense import result dto)
+     * @return expenseImportResponse
+     */
+    private ExpenseImportResponse mapToImportResponse(ExpenseImportResultDTO result) {
+        List<ExpenseImportError> errors = result.getErrors().stream()
+                .map(error -> ExpenseImportError.builder().line(error.getLine()).errors(error.getErrors()).build())
+                .collect(Collectors.toList());
+        return ExpenseImportResponse.builder()
+                .rowsRead(result.getRowsRead())
+                .rowsImported(result.getRowsImported())
+                .rowsRejected(result.getRowsRejected())
+                .errors(errors)
+                .elapsedMillis(result.getElapsedMillis())
+                .rowsPerSecond(result.getRowsPerSecond())
+                .build();
     }
 
     /**
@@ -104,7 +688,7 @@ public class ExpenseController {
      * @return expenseDTO
      */
     private ExpenseDTO mapToExpenseDTO(ExpenseRequest expenseRequest) {
-        return modelMapper.map(expenseRequest, ExpenseDTO.class);
+        return expenseMapper.toExpenseDTO(expenseRequest);
     }
 
     /**
@@ -113,6 +697,6 @@ public class ExpenseController {
      * @return ExpenseResponse
      */
     private ExpenseResponse mapToExpenseResponse(ExpenseDTO expenseDTO) {
-        return modelMapper.map(expenseDTO, ExpenseResponse.class);
+        return expenseMapper.toExpenseResponse(expenseDTO);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseBatchEntryDTO {
+
+    private String operation;
+
+    private Integer index;
+
+    private String expenseId;
+
+    private ExpenseDTO expense;
+}
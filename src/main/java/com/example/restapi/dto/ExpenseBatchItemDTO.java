@@ -0,0 +1,31 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseBatchItemDTO {
+
+    public static final String CREATE = "CREATE";
+
+    public static final String UPDATE = "UPDATE";
+
+    public static final String DELETE = "DELETE";
+
+    private String operation;
+
+    private Integer index;
+
+    private String expenseId;
+
+    private Integer statusCode;
+
+    private List<String> errors;
+}
@@ -0,0 +1,22 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseChangesDTO {
+    private List<ExpenseDTO> upserts;
+
+    private List<String> deletedExpenseIds;
+
+    private String nextCursor;
+
+    private Boolean hasMore;
+}
@@ -29,4 +29,6 @@ public class ExpenseDTO {
     private Timestamp createdAt;
 
     private Timestamp updatedAt;
+
+    private Long version;
 }
@@ -0,0 +1,25 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseFilterDTO {
+    private String category;
+
+    private Date fromDate;
+
+    private Date toDate;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+}
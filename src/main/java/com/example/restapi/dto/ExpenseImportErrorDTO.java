@@ -0,0 +1,19 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseImportErrorDTO {
+
+    private Long line;
+
+    private List<String> errors;
+}
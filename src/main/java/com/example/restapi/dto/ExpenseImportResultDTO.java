@@ -0,0 +1,27 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseImportResultDTO {
+
+    private Long rowsRead;
+
+    private Long rowsImported;
+
+    private Long rowsRejected;
+
+    private List<ExpenseImportErrorDTO> errors;
+
+    private Long elapsedMillis;
+
+    private Long rowsPerSecond;
+}
@@ -0,0 +1,22 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseRollupDTO {
+    private String month;
+
+    private String category;
+
+    private BigDecimal total;
+
+    private Long count;
+}
@@ -0,0 +1,18 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseRollupVerificationDTO {
+    private Integer bucketsChecked;
+
+    private List<String> mismatches;
+}
@@ -0,0 +1,26 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseSummaryDTO {
+    private String bucket;
+
+    private Long count;
+
+    private BigDecimal total;
+
+    private BigDecimal min;
+
+    private BigDecimal max;
+
+    private BigDecimal average;
+}
@@ -0,0 +1,28 @@
+package com.example.restapi.dto;
+
+import com.example.restapi.exceptions.InvalidRequestException;
+
+/**
+ * Buckets supported by the expense summary
+ * @author boroboro01
+ */
+public enum ExpenseSummaryGroupBy {
+    CATEGORY,
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * It will resolve the grouping from the request parameter
+     * @param groupBy (category, day, week or month, case insensitive)
+     * @return ExpenseSummaryGroupBy
+     */
+    public static ExpenseSummaryGroupBy fromParameter(String groupBy) {
+        for (ExpenseSummaryGroupBy value : values()) {
+            if (value.name().equalsIgnoreCase(groupBy)) {
+                return value;
+            }
+        }
+        throw new InvalidRequestException("Unsupported groupBy " + groupBy + ", expected category, day, week or month");
+    }
+}
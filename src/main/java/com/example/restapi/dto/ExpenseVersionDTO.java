@@ -0,0 +1,21 @@
+package com.example.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Aggregate validator of a set of expenses, changes whenever a row of the set is created, updated or deleted
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseVersionDTO {
+    private Long count;
+
+    private Timestamp lastModified;
+}
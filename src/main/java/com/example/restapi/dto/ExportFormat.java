@@ -0,0 +1,34 @@
+package com.example.restapi.dto;
+
+import com.example.restapi.exceptions.InvalidRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Line oriented formats supported for streaming expenses in and out
+ * @author boroboro01
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String fileExtension;
+
+    /**
+     * It will resolve the format from the request parameter
+     * @param format (ndjson or csv, case insensitive)
+     * @return ExportFormat
+     */
+    public static ExportFormat fromParameter(String format) {
+        for (ExportFormat exportFormat : values()) {
+            if (exportFormat.name().equalsIgnoreCase(format)) {
+                return exportFormat;
+            }
+        }
+        throw new InvalidRequestException("Unsupported format " + format + ", expected ndjson or csv");
+    }
+}
@@ -4,8 +4,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -13,19 +16,51 @@ import java.sql.Date;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "tbl_expenses")
+@Table(name = "tbl_expenses", indexes = {
+        @Index(name = "idx_expenses_profile_date", columnList = "profile_id, date"),
+        @Index(name = "idx_expenses_profile_category", columnList = "profile_id, category"),
+        @Index(name = "idx_expenses_profile_amount", columnList = "profile_id, amount"),
+        @Index(name = "idx_expenses_profile_id", columnList = "profile_id, id"),
+        @Index(name = "idx_expenses_profile_updated", columnList = "profile_id, updated_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_expenses_expense_id", columnNames = "expense_id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@DynamicUpdate
 public class ExpenseEntity {
+
+    /**
+     * Ids are allocated in blocks of 50 from tbl_expenses_seq, unlike IDENTITY this lets Hibernate batch the inserts
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_id_generator")
+    @SequenceGenerator(name = "expense_id_generator", sequenceName = "tbl_expenses_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(unique = true)
+    /**
+     * Public id, a UUIDv7 string stored as BINARY(16)
+     */
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(columnDefinition = "binary(16)")
     private String expenseId;
 
+    /**
+     * Owner of the expense, every query is scoped by it
+     */
+    @Column(name = "profile_id")
+    private Long profileId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profile_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "fk_expenses_profile"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ProfileEntity profile;
+
     private String name;
 
     private String note;
@@ -42,4 +77,11 @@ public class ExpenseEntity {
 
     @UpdateTimestamp
     private Timestamp updatedAt;
+
+    /**
+     * Optimistic lock, every UPDATE checks and increments it. Rows created before the column existed start at 0.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 }
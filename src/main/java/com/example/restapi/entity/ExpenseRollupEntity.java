@@ -0,0 +1,54 @@
+package com.example.restapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * Per profile, per category, per month sum and count of expenses.
+ * Maintained incrementally in the same transaction as every expense write, see ExpenseRollupService.
+ */
+@Entity
+@Table(name = "tbl_expense_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_expense_rollups_bucket", columnNames = {"profile_id", "category", "bucket_month"}),
+        indexes = @Index(name = "idx_expense_rollups_profile_month", columnList = "profile_id, bucket_month"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "profile_id", nullable = false)
+    private Long profileId;
+
+    /**
+     * '' for expenses without a category, never NULL so that the bucket key stays unique
+     */
+    @Column(name = "category", nullable = false)
+    private String category;
+
+    /**
+     * First day of the month of the bucket
+     */
+    @Column(name = "bucket_month", nullable = false)
+    private Date bucketMonth;
+
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(name = "expense_count", nullable = false)
+    private Long expenseCount;
+
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+}
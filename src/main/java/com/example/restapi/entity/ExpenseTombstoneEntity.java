@@ -0,0 +1,44 @@
+package com.example.restapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.sql.Timestamp;
+
+/**
+ * Record of a deleted expense, kept for expense.sync.tombstone-retention-days so that
+ * GET /expenses/changes can report deletes to clients syncing incrementally
+ */
+@Entity
+@Table(name = "tbl_expense_tombstones", indexes = {
+        @Index(name = "idx_expense_tombstones_profile_deleted", columnList = "profile_id, deleted_at"),
+        @Index(name = "idx_expense_tombstones_deleted", columnList = "deleted_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseTombstoneEntity {
+
+    /**
+     * Tombstones are written with INSERT ... SELECT from tbl_expenses, so the id is generated by MySQL
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(nullable = false, columnDefinition = "binary(16)")
+    private String expenseId;
+
+    @Column(name = "profile_id", nullable = false)
+    private Long profileId;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Timestamp deletedAt;
+}
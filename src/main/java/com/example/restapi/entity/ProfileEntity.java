@@ -12,7 +12,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "tbl_profile")
+@Table(name = "tbl_profile", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_profile_profile_id", columnNames = "profile_id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,7 +25,11 @@ public class ProfileEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true)
+    /**
+     * Public id, a UUIDv7 string stored as BINARY(16)
+     */
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(columnDefinition = "binary(16)")
     private String profileId;
 
     @Column(unique = true)
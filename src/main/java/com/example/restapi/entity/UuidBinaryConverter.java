@@ -0,0 +1,24 @@
+package com.example.restapi.entity;
+
+import com.example.restapi.util.UuidUtil;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores the canonical uuid strings of the public ids as BINARY(16).
+ * A string that is not a uuid is bound as null, so a lookup by a malformed id simply finds nothing.
+ * @author boroboro01
+ */
+@Converter
+public class UuidBinaryConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String uuid) {
+        return UuidUtil.toBytes(uuid);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return UuidUtil.fromBytes(bytes);
+    }
+}
@@ -2,10 +2,14 @@ package com.example.restapi.exceptions;
 
 import com.example.restapi.io.ErrorObject;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -39,6 +43,101 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 .build();
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidRequestException.class)
+    public ErrorObject handleInvalidRequestException(InvalidRequestException e) {
+        log.error("Throwing the InvalidRequestException from GlobalExceptionHandler {}", e.getMessage());
+        return ErrorObject.builder()
+                .errorCode("INVALID_REQUEST")
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .message(e.getMessage())
+                .timestamp(new Date())
+                .build();
+    }
+
+    /**
+     * No authenticated profile in the security context when a service resolves the owner of the expenses
+     */
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    @ExceptionHandler(AuthenticationCredentialsNotFoundException.class)
+    public ErrorObject handleAuthenticationCredentialsNotFoundException(AuthenticationCredentialsNotFoundException e) {
+        log.error("Throwing the AuthenticationCredentialsNotFoundException from GlobalExceptionHandler {}", e.getMessage());
+        return ErrorObject.builder()
+                .errorCode("UNAUTHORIZED")
+                .statusCode(HttpStatus.UNAUTHORIZED.value())
+                .message("Authentication is required, log in and send the token")
+                .timestamp(new Date())
+                .build();
+    }
+
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    @ExceptionHandler(AuthenticationException.class)
+    public ErrorObject handleAuthenticationException(AuthenticationException e) {
+        log.error("Throwing the AuthenticationException from GlobalExceptionHandler {}", e.getMessage());
+        return ErrorObject.builder()
+                .errorCode("UNAUTHORIZED")
+                .statusCode(HttpStatus.UNAUTHORIZED.value())
+                .message(e instanceof BadCredentialsException ? "Invalid email or password" : e.getMessage())
+                .timestamp(new Date())
+                .build();
+    }
+
+    /**
+     * Password hashing pool saturated, the client should back off for a moment
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorObject> handleServiceUnavailableException(ServiceUnavailableException e) {
+        log.error("Throwing the ServiceUnavailableException from GlobalExceptionHandler {}", e.getMessage());
+        ErrorObject errorObject = ErrorObject.builder()
+                .errorCode("SERVICE_UNAVAILABLE")
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(e.getMessage())
+                .timestamp(new Date())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorObject);
+    }
+
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ErrorObject handlePreconditionFailedException(PreconditionFailedException e) {
+        log.error("Throwing the PreconditionFailedException from GlobalExceptionHandler {}", e.getMessage());
+        return ErrorObject.builder()
+                .errorCode("PRECONDITION_FAILED")
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+                .message(e.getMessage())
+                .timestamp(new Date())
+                .build();
+    }
+
+    /**
+     * Optimistic lock failures and deadlocks, another request changed the same row at the same time
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ErrorObject handleConcurrencyFailureException(ConcurrencyFailureException e) {
+        log.error("Throwing the ConcurrencyFailureException from GlobalExceptionHandler {}", e.getMessage());
+        return ErrorObject.builder()
+                .errorCode("CONCURRENT_MODIFICATION")
+                .statusCode(HttpStatus.CONFLICT.value())
+                .message("The expense was modified by another request, reload it and retry")
+                .timestamp(new Date())
+                .build();
+    }
+
+    @ResponseStatus(HttpStatus.GONE)
+    @ExceptionHandler(SyncCursorExpiredException.class)
+    public ErrorObject handleSyncCursorExpiredException(SyncCursorExpiredException e) {
+        log.error("Throwing the SyncCursorExpiredException from GlobalExceptionHandler {}", e.getMessage());
+        return ErrorObject.builder()
+                .errorCode("SYNC_CURSOR_EXPIRED")
+                .statusCode(HttpStatus.GONE.value())
+                .message(e.getMessage())
+                .timestamp(new Date())
+                .build();
+    }
+
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(Exception.class)
     public ErrorObject handleGeneralException(Exception e, WebRequest request) {
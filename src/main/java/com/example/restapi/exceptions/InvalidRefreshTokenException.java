@@ -0,0 +1,9 @@
+package com.example.restapi.exceptions;
+
+import org.springframework.security.core.AuthenticationException;
+
+public class InvalidRefreshTokenException extends AuthenticationException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.restapi.exceptions;
+
+public class SyncCursorExpiredException extends RuntimeException {
+    public SyncCursorExpiredException(String message) {
+        super(message);
+    }
+}
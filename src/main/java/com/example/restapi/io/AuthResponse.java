@@ -10,4 +10,8 @@ public class AuthResponse {
     private String token;
 
     private String email;
+
+    private String refreshToken;
+
+    private long expiresIn;
 }
@@ -0,0 +1,25 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseBatchItemResult {
+
+    private String operation;
+
+    private Integer index;
+
+    private String expenseId;
+
+    private Integer statusCode;
+
+    private List<String> errors;
+}
@@ -0,0 +1,21 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseBatchRequest {
+
+    private List<ExpenseRequest> creates;
+
+    private List<ExpenseBatchUpdateRequest> updates;
+
+    private List<String> deletes;
+}
@@ -0,0 +1,21 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseBatchResponse {
+
+    private Integer succeeded;
+
+    private Integer failed;
+
+    private List<ExpenseBatchItemResult> results;
+}
@@ -0,0 +1,17 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseBatchUpdateRequest {
+
+    private String expenseId;
+
+    private ExpenseRequest expense;
+}
@@ -0,0 +1,31 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Bulk delete of expenses, either by expense ids or by filter
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseBulkDeleteRequest {
+    private List<String> expenseIds;
+
+    private String category;
+
+    private Date from;
+
+    private Date to;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+}
@@ -0,0 +1,22 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseChangesResponse {
+    private List<ExpenseResponse> upserts;
+
+    private List<String> deletedExpenseIds;
+
+    private String nextCursor;
+
+    private Boolean hasMore;
+}
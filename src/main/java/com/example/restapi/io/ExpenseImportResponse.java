@@ -0,0 +1,27 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpenseImportResponse {
+
+    private Long rowsRead;
+
+    private Long rowsImported;
+
+    private Long rowsRejected;
+
+    private List<ExpenseImportError> errors;
+
+    private Long elapsedMillis;
+
+    private Long rowsPerSecond;
+}
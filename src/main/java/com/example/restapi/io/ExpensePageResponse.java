@@ -0,0 +1,19 @@
+package com.example.restapi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpensePageResponse {
+
+    private List<ExpenseResponse> expenses;
+
+    private String nextCursor;
+}
@@ -0,0 +1,32 @@
+package com.example.restapi.io;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * Partial update of an expense, null fields are left unchanged
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExpensePatchRequest {
+
+    @Size(min = 3, message = "Expense name should be at least 3 characters")
+    private String name;
+
+    private String note;
+
+    @Size(min = 1, message = "Expense category must not be empty")
+    private String category;
+
+    private Date date;
+
+    private BigDecimal amount;
+}
@@ -0,0 +1,114 @@
+package com.example.restapi.mapper;
+
+import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.entity.ExpenseEntity;
+import com.example.restapi.io.ExpensePatchRequest;
+import com.example.restapi.io.ExpenseRequest;
+import com.example.restapi.io.ExpenseResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Explicit mapper for the Expense module, replacing the reflective ModelMapper on the request path
+ * @author boroboro01
+ */
+@Component
+public class ExpenseMapper {
+
+    /**
+     * Mapper method for converting ExpenseRequest object to ExpenseDTO
+     * @param expenseRequest (expense request)
+     * @return expenseDTO
+     */
+    public ExpenseDTO toExpenseDTO(ExpenseRequest expenseRequest) {
+        return ExpenseDTO.builder()
+                .name(expenseRequest.getName())
+                .note(expenseRequest.getNote())
+                .category(expenseRequest.getCategory())
+                .date(expenseRequest.getDate())
+                .amount(expenseRequest.getAmount())
+                .build();
+    }
+
+    /**
+     * Mapper method for converting ExpensePatchRequest object to ExpenseDTO, absent fields stay null
+     * @param patchRequest (expense patch request)
+     * @return expenseDTO
+     */
+    public ExpenseDTO toExpenseDTO(ExpensePatchRequest patchRequest) {
+        return ExpenseDTO.builder()
+                .name(patchRequest.getName())
+                .note(patchRequest.getNote())
+                .category(patchRequest.getCategory())
+                .date(patchRequest.getDate())
+                .amount(patchRequest.getAmount())
+                .build();
+    }
+
+    /**
+     * Mapper method for converting ExpenseEntity object to ExpenseDTO
+     * @param expenseEntity (expense entity)
+     * @return expenseDTO
+     */
+    public ExpenseDTO toExpenseDTO(ExpenseEntity expenseEntity) {
+        return ExpenseDTO.builder()
+                .expenseId(expenseEntity.getExpenseId())
+                .name(expenseEntity.getName())
+                .note(expenseEntity.getNote())
+                .category(expenseEntity.getCategory())
+                .date(expenseEntity.getDate())
+                .amount(expenseEntity.getAmount())
+                .createdAt(expenseEntity.getCreatedAt())
+                .updatedAt(expenseEntity.getUpdatedAt())
+                .version(expenseEntity.getVersion())
+                .build();
+    }
+
+    /**
+     * Mapper method for converting ExpenseDTO object to ExpenseEntity
+     * @param expenseDTO (expense dto)
+     * @return expenseEntity
+     */
+    public ExpenseEntity toExpenseEntity(ExpenseDTO expenseDTO) {
+        return ExpenseEntity.builder()
+                .expenseId(expenseDTO.getExpenseId())
+                .name(expenseDTO.getName())
+                .note(expenseDTO.getNote())
+                .category(expenseDTO.getCategory())
+                .date(expenseDTO.getDate())
+                .amount(expenseDTO.getAmount())
+                .createdAt(expenseDTO.getCreatedAt())
+                .updatedAt(expenseDTO.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Mapper method for copying the editable fields of ExpenseDTO onto an existing ExpenseEntity
+     * @param expenseDTO (expense dto)
+     * @param expenseEntity (expense entity to update)
+     */
+    public void updateExpenseEntity(ExpenseDTO expenseDTO, ExpenseEntity expenseEntity) {
+        expenseEntity.setName(expenseDTO.getName());
+        expenseEntity.setNote(expenseDTO.getNote());
+        expenseEntity.setCategory(expenseDTO.getCategory());
+        expenseEntity.setDate(expenseDTO.getDate());
+        expenseEntity.setAmount(expenseDTO.getAmount());
+    }
+
+    /**
+     * Mapper method for converting ExpenseDTO object to ExpenseResponse
+     * @param expenseDTO (expense dto)
+     * @return expenseResponse
+     */
+    public ExpenseResponse toExpenseResponse(ExpenseDTO expenseDTO) {
+        return ExpenseResponse.builder()
+                .expenseId(expenseDTO.getExpenseId())
+                .name(expenseDTO.getName())
+                .note(expenseDTO.getNote())
+                .category(expenseDTO.getCategory())
+                .date(expenseDTO.getDate())
+                .amount(expenseDTO.getAmount())
+                .createdAt(expenseDTO.getCreatedAt())
+                .updatedAt(expenseDTO.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.restapi.mapper;
+
+import com.example.restapi.dto.ProfileDTO;
+import com.example.restapi.entity.ProfileEntity;
+import com.example.restapi.io.ProfileRequest;
+import com.example.restapi.io.ProfileResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Explicit mapper for the Profile module, replacing the reflective ModelMapper on the request path
+ * @author boroboro01
+ */
+@Component
+public class ProfileMapper {
+
+    /**
+     * Mapper method to map values from profile request to profile dto
+     * @param profileRequest (profile request)
+     * @return profileDTO
+     */
+    public ProfileDTO toProfileDTO(ProfileRequest profileRequest) {
+        return ProfileDTO.builder()
+                .name(profileRequest.getName())
+                .email(profileRequest.getEmail())
+                .password(profileRequest.getPassword())
+                .build();
+    }
+
+    /**
+     * Mapper method to map values from profile entity to profile dto
+     * @param profileEntity (profile entity)
+     * @return profileDTO
+     */
+    public ProfileDTO toProfileDTO(ProfileEntity profileEntity) {
+        return ProfileDTO.builder()
+                .profileId(profileEntity.getProfileId())
+                .email(profileEntity.getEmail())
+                .name(profileEntity.getName())
+                .password(profileEntity.getPassword())
+                .createdAt(profileEntity.getCreatedAt())
+                .updatedAt(profileEntity.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Mapper method to map values from profile dto to profile entity
+     * @param profileDTO (profile dto)
+     * @return profileEntity
+     */
+    public ProfileEntity toProfileEntity(ProfileDTO profileDTO) {
+        return ProfileEntity.builder()
+                .profileId(profileDTO.getProfileId())
+                .email(profileDTO.getEmail())
+                .name(profileDTO.getName())
+                .password(profileDTO.getPassword())
+                .createdAt(profileDTO.getCreatedAt())
+                .updatedAt(profileDTO.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Mapper method to map values from profile dto to profile response
+     * @param profileDTO (profile dto)
+     * @return profileResponse
+     */
+    public ProfileResponse toProfileResponse(ProfileDTO profileDTO) {
+        return ProfileResponse.builder()
+                .profileId(profileDTO.getProfileId())
+                .email(profileDTO.getEmail())
+                .name(profileDTO.getName())
+                .createdAt(profileDTO.getCreatedAt())
+                .updatedAt(profileDTO.getUpdatedAt())
+                .build();
+    }
+}
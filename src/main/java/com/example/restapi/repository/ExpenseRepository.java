@@ -1,20 +1,143 @@
 package com.example.restapi.repository;
 
 import com.example.restapi.entity.ExpenseEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * JPA repository for Expense resource
  * @author boroboro01
  */
-public interface ExpenseRepository extends JpaRepository<ExpenseEntity,Long> {
+public interface ExpenseRepository extends JpaRepository<ExpenseEntity,Long>, JpaSpecificationExecutor<ExpenseEntity> {
 
     /**
-     * It will find the single expense from database
+     * It will find the single expense of the profile from database
      * @param expenseId
+     * @param profileId (owner of the expense)
      * @return Optional
      */
-    Optional<ExpenseEntity> findByExpenseId(String expenseId);
-}
\ No newline at end of file
+    Optional<ExpenseEntity> findByExpenseIdAndProfileId(String expenseId, Long profileId);
+
+    /**
+     * It will find the expenses of the profile for the given expense ids in a single query
+     * @param profileId (owner of the expenses)
+     * @param expenseIds
+     * @return list
+     */
+    List<ExpenseEntity> findByProfileIdAndExpenseIdIn(Long profileId, Collection<String> expenseIds);
+
+    /**
+     * It will delete the single expense of the profile with one DELETE, without loading it
+     * @param expenseId
+     * @param profileId (owner of the expense)
+     * @return number of deleted rows, 0 when the expense does not exist
+     */
+    @Modifying
+    @Query("delete from ExpenseEntity e where e.expenseId = :expenseId and e.profileId = :profileId")
+    int deleteByExpenseIdAndProfileId(String expenseId, Long profileId);
+
+    /**
+     * It will delete the expenses of the profile for the given expense ids with one DELETE
+     * @param profileId (owner of the expenses)
+     * @param expenseIds
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("delete from ExpenseEntity e where e.profileId = :profileId and e.expenseId in :expenseIds")
+    int deleteByProfileIdAndExpenseIdIn(Long profileId, Collection<String> expenseIds);
+
+    /**
+     * It will delete the expenses of the profile matching the filter with one DELETE, null filters are ignored
+     * @param profileId (owner of the expenses)
+     * @param category
+     * @param fromDate (first date, inclusive)
+     * @param toDate (last date, inclusive)
+     * @param minAmount (lowest amount, inclusive)
+     * @param maxAmount (highest amount, inclusive)
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("delete from ExpenseEntity e where e.profileId = :profileId " +
+            "and (:category is null or e.category = :category) and (:fromDate is null or e.date >= :fromDate) " +
+            "and (:toDate is null or e.date <= :toDate) and (:minAmount is null or e.amount >= :minAmount) " +
+            "and (:maxAmount is null or e.amount <= :maxAmount)")
+    int deleteMatching(Long profileId, String category, Date fromDate, Date toDate, BigDecimal minAmount, BigDecimal maxAmount);
+
+    /**
+     * It will stream the expenses of the profile with a forward only cursor, MySQL Connector/J streams the
+     * result set row by row when the fetch size is Integer.MIN_VALUE.
+     * Must be consumed inside a read only transaction and closed afterwards.
+     * @param profileId (owner of the expenses)
+     * @return stream
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from ExpenseEntity e where e.profileId = :profileId order by e.id")
+    Stream<ExpenseEntity> streamByProfileId(Long profileId);
+
+    /**
+     * It will aggregate the profile's expenses per category over the date range
+     * @param profileId (owner of the expenses)
+     * @param from (first date, inclusive)
+     * @param to (last date, inclusive)
+     * @return one row per category
+     */
+    @Query("select new com.example.restapi.repository.ExpenseTotalsView(e.category, count(e), sum(e.amount), min(e.amount), max(e.amount), avg(e.amount)) " +
+            "from ExpenseEntity e where e.profileId = :profileId and e.date between :from and :to " +
+            "group by e.category order by e.category")
+    List<ExpenseTotalsView> aggregateByCategory(Long profileId, Date from, Date to);
+
+    /**
+     * It will aggregate the profile's expenses per day over the date range
+     * @param profileId (owner of the expenses)
+     * @param from (first date, inclusive)
+     * @param to (last date, inclusive)
+     * @return one row per day with expenses
+     */
+    @Query("select new com.example.restapi.repository.ExpenseTotalsView(e.date, count(e), sum(e.amount), min(e.amount), max(e.amount), avg(e.amount)) " +
+            "from ExpenseEntity e where e.profileId = :profileId and e.date between :from and :to " +
+            "group by e.date order by e.date")
+    List<ExpenseTotalsView> aggregateByDay(Long profileId, Date from, Date to);
+
+    /**
+     * It will aggregate the profile's expenses per ISO week over the date range
+     * @param profileId (owner of the expenses)
+     * @param from (first date, inclusive)
+     * @param to (last date, inclusive)
+     * @return one row per week with expenses
+     */
+    @Query("select new com.example.restapi.repository.ExpenseTotalsView(cast(function('yearweek', e.date, 3) as Integer), count(e), sum(e.amount), min(e.amount), max(e.amount), avg(e.amount)) " +
+            "from ExpenseEntity e where e.profileId = :profileId and e.date between :from and :to " +
+            "group by function('yearweek', e.date, 3) order by function('yearweek', e.date, 3)")
+    List<ExpenseTotalsView> aggregateByWeek(Long profileId, Date from, Date to);
+
+    /**
+     * It will aggregate the profile's expenses per month over the date range
+     * @param profileId (owner of the expenses)
+     * @param from (first date, inclusive)
+     * @param to (last date, inclusive)
+     * @return one row per month with expenses
+     */
+    @Query("select new com.example.restapi.repository.ExpenseTotalsView(extract(year from e.date), extract(month from e.date), count(e), sum(e.amount), min(e.amount), max(e.amount), avg(e.amount)) " +
+            "from ExpenseEntity e where e.profileId = :profileId and e.date between :from and :to " +
+            "group by extract(year from e.date), extract(month from e.date) order by extract(year from e.date), extract(month from e.date)")
+    List<ExpenseTotalsView> aggregateByMonth(Long profileId, Date from, Date to);
+}
@@ -0,0 +1,19 @@
+package com.example.restapi.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * Projection of one rollup bucket as computed from tbl_expenses, used to verify the maintained rollups
+ * @author boroboro01
+ */
+public interface ExpenseRollupBucket {
+
+    String getCategory();
+
+    Date getBucketMonth();
+
+    BigDecimal getTotalAmount();
+
+    Long getExpenseCount();
+}
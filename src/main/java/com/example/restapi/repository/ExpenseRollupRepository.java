@@ -0,0 +1,134 @@
+package com.example.restapi.repository;
+
+import com.example.restapi.entity.ExpenseRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA repository for the expense rollups.
+ * The writes are MySQL upserts so that concurrent transactions adjust the same bucket without a read.
+ * A missing category is stored as '' because the unique bucket key treats NULLs as distinct, which would
+ * turn every upsert of an uncategorised expense into a new row.
+ * @author boroboro01
+ */
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollupEntity, Long> {
+
+    /**
+     * It will add the delta to the bucket, creating the bucket when it does not exist yet
+     * @param profileId (owner of the expenses)
+     * @param category (expense category, null is stored as '')
+     * @param bucketMonth (first day of the month)
+     * @param amount (amount to add, negative to subtract)
+     * @param count (number of expenses to add, negative to subtract)
+     * @return affected rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_expense_rollups (profile_id, category, bucket_month, total_amount, expense_count, updated_at) " +
+            "VALUES (:profileId, COALESCE(:category, ''), :bucketMonth, :amount, :count, NOW()) " +
+            "ON DUPLICATE KEY UPDATE total_amount = total_amount + VALUES(total_amount), " +
+            "expense_count = expense_count + VALUES(expense_count), updated_at = NOW()", nativeQuery = true)
+    int upsertDelta(Long profileId, String category, Date bucketMonth, BigDecimal amount, long count);
+
+    /**
+     * It will add the stored values of one expense to its bucket without loading the expense,
+     * the sign is -1 to take them out before a targeted update and 1 to put them back after it.
+     * Like every query here it skips expenses without an amount or a date, which are never counted.
+     * @param profileId (owner of the expense)
+     * @param expenseId (BINARY(16) expense id)
+     * @param sign (1 or -1)
+     * @return affected rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_expense_rollups (profile_id, category, bucket_month, total_amount, expense_count, updated_at) " +
+            "SELECT e.profile_id, COALESCE(e.category, ''), CAST(DATE_FORMAT(e.date, '%Y-%m-01') AS DATE), :sign * e.amount, :sign, NOW() " +
+            "FROM tbl_expenses e WHERE e.expense_id = :expenseId AND e.profile_id = :profileId " +
+            "AND e.amount IS NOT NULL AND e.date IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE total_amount = tbl_expense_rollups.total_amount + VALUES(total_amount), " +
+            "expense_count = tbl_expense_rollups.expense_count + VALUES(expense_count), updated_at = NOW()", nativeQuery = true)
+    int upsertStoredExpense(Long profileId, byte[] expenseId, int sign);
+
+    /**
+     * It will subtract the stored expenses with the given ids from their buckets, one upsert per bucket
+     * @param profileId (owner of the expenses)
+     * @param expenseIds (BINARY(16) expense ids, not empty)
+     * @return affected rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_expense_rollups (profile_id, category, bucket_month, total_amount, expense_count, updated_at) " +
+            "SELECT e.profile_id, COALESCE(e.category, ''), CAST(DATE_FORMAT(e.date, '%Y-%m-01') AS DATE), -SUM(e.amount), -COUNT(*), NOW() " +
+            "FROM tbl_expenses e WHERE e.profile_id = :profileId AND e.expense_id IN (:expenseIds) " +
+            "AND e.amount IS NOT NULL AND e.date IS NOT NULL " +
+            "GROUP BY e.profile_id, COALESCE(e.category, ''), CAST(DATE_FORMAT(e.date, '%Y-%m-01') AS DATE) " +
+            "ON DUPLICATE KEY UPDATE total_amount = tbl_expense_rollups.total_amount + VALUES(total_amount), " +
+            "expense_count = tbl_expense_rollups.expense_count + VALUES(expense_count), updated_at = NOW()", nativeQuery = true)
+    int subtractStoredExpenses(Long profileId, Collection<byte[]> expenseIds);
+
+    /**
+     * It will subtract the stored expenses matching the filter from their buckets, null filters are ignored
+     * @param profileId (owner of the expenses)
+     * @param category
+     * @param fromDate (first date, inclusive)
+     * @param toDate (last date, inclusive)
+     * @param minAmount (lowest amount, inclusive)
+     * @param maxAmount (highest amount, inclusive)
+     * @return affected rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_expense_rollups (profile_id, category, bucket_month, total_amount, expense_count, updated_at) " +
+            "SELECT e.profile_id, COALESCE(e.category, ''), CAST(DATE_FORMAT(e.date, '%Y-%m-01') AS DATE), -SUM(e.amount), -COUNT(*), NOW() " +
+            "FROM tbl_expenses e WHERE e.profile_id = :profileId AND e.amount IS NOT NULL AND e.date IS NOT NULL " +
+            "AND (:category IS NULL OR e.category = :category) AND (:fromDate IS NULL OR e.date >= :fromDate) " +
+            "AND (:toDate IS NULL OR e.date <= :toDate) AND (:minAmount IS NULL OR e.amount >= :minAmount) " +
+            "AND (:maxAmount IS NULL OR e.amount <= :maxAmount) " +
+            "GROUP BY e.profile_id, COALESCE(e.category, ''), CAST(DATE_FORMAT(e.date, '%Y-%m-01') AS DATE) " +
+            "ON DUPLICATE KEY UPDATE total_amount = tbl_expense_rollups.total_amount + VALUES(total_amount), " +
+            "expense_count = tbl_expense_rollups.expense_count + VALUES(expense_count), updated_at = NOW()", nativeQuery = true)
+    int subtractMatchingExpenses(Long profileId, String category, Date fromDate, Date toDate, BigDecimal minAmount, BigDecimal maxAmount);
+
+    /**
+     * It will find the buckets of the profile between the two months
+     * @param profileId (owner of the expenses)
+     * @param from (first month, inclusive)
+     * @param to (last month, inclusive)
+     * @return list
+     */
+    List<ExpenseRollupEntity> findByProfileIdAndBucketMonthBetweenOrderByBucketMonthAscCategoryAsc(Long profileId, Date from, Date to);
+
+    /**
+     * It will find every bucket of the profile
+     * @param profileId (owner of the expenses)
+     * @return list
+     */
+    List<ExpenseRollupEntity> findByProfileId(Long profileId);
+
+    /**
+     * It will compute the buckets of the profile from tbl_expenses
+     * @param profileId (owner of the expenses)
+     * @return list
+     */
+    @Query(value = "SELECT COALESCE(category, '') AS category, CAST(DATE_FORMAT(date, '%Y-%m-01') AS DATE) AS bucketMonth, " +
+            "SUM(amount) AS totalAmount, COUNT(*) AS expenseCount FROM tbl_expenses " +
+            "WHERE profile_id = :profileId AND amount IS NOT NULL AND date IS NOT NULL GROUP BY COALESCE(category, ''), CAST(DATE_FORMAT(date, '%Y-%m-01') AS DATE)", nativeQuery = true)
+    List<ExpenseRollupBucket> computeBuckets(Long profileId);
+
+    @Modifying
+    @Query(value = "DELETE FROM tbl_expense_rollups WHERE profile_id = :profileId", nativeQuery = true)
+    int deleteByProfile(Long profileId);
+
+    /**
+     * It will recompute every bucket of the profile from tbl_expenses in a single statement
+     * @param profileId (owner of the expenses)
+     * @return number of buckets written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_expense_rollups (profile_id, category, bucket_month, total_amount, expense_count, updated_at) " +
+            "SELECT profile_id, COALESCE(category, ''), CAST(DATE_FORMAT(date, '%Y-%m-01') AS DATE), SUM(amount), COUNT(*), NOW() FROM tbl_expenses " +
+            "WHERE profile_id = :profileId AND amount IS NOT NULL AND date IS NOT NULL GROUP BY profile_id, COALESCE(category, ''), CAST(DATE_FORMAT(date, '%Y-%m-01') AS DATE)", nativeQuery = true)
+    int insertComputedBuckets(Long profileId);
+}
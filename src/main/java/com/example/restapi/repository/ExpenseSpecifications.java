@@ -0,0 +1,72 @@
+package com.example.restapi.repository;
+
+import com.example.restapi.dto.ExpenseFilterDTO;
+import com.example.restapi.entity.ExpenseEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.Timestamp;
+
+/**
+ * Specifications for searching the expenses of a profile.
+ * Every predicate is on a column covered by one of the (profile_id, ...) indexes of tbl_expenses.
+ * @author boroboro01
+ */
+public final class ExpenseSpecifications {
+
+    private ExpenseSpecifications() {
+    }
+
+    /**
+     * It will build the search for one page of the profile's expenses
+     * @param profileId (owner of the expenses)
+     * @param filter (optional filters, null values are ignored)
+     * @param afterId (id of the last row already returned)
+     * @return specification
+     */
+    public static Specification<ExpenseEntity> search(Long profileId, ExpenseFilterDTO filter, long afterId) {
+        Specification<ExpenseEntity> specification = belongsTo(profileId).and(idGreaterThan(afterId));
+        if (filter == null) {
+            return specification;
+        }
+        if (filter.getCategory() != null) {
+            specification = specification.and((root, query, builder) -> builder.equal(root.get("category"), filter.getCategory()));
+        }
+        if (filter.getFromDate() != null) {
+            specification = specification.and((root, query, builder) -> builder.greaterThanOrEqualTo(root.get("date"), filter.getFromDate()));
+        }
+        if (filter.getToDate() != null) {
+            specification = specification.and((root, query, builder) -> builder.lessThanOrEqualTo(root.get("date"), filter.getToDate()));
+        }
+        if (filter.getMinAmount() != null) {
+            specification = specification.and((root, query, builder) -> builder.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            specification = specification.and((root, query, builder) -> builder.lessThanOrEqualTo(root.get("amount"), filter.getMaxAmount()));
+        }
+        return specification;
+    }
+
+    /**
+     * It will build the search for the profile's expenses changed after the (updatedAt, id) position
+     * @param profileId (owner of the expenses)
+     * @param updatedAt (updatedAt of the last row already returned)
+     * @param afterId (id of the last row already returned)
+     * @param horizon (newest updatedAt that is safe to return)
+     * @return specification
+     */
+    public static Specification<ExpenseEntity> changedAfter(Long profileId, Timestamp updatedAt, long afterId, Timestamp horizon) {
+        return belongsTo(profileId).and((root, query, builder) -> builder.and(
+                builder.lessThanOrEqualTo(root.get("updatedAt"), horizon),
+                builder.or(
+                        builder.greaterThan(root.get("updatedAt"), updatedAt),
+                        builder.and(builder.equal(root.get("updatedAt"), updatedAt), builder.greaterThan(root.get("id"), afterId)))));
+    }
+
+    public static Specification<ExpenseEntity> belongsTo(Long profileId) {
+        return (root, query, builder) -> builder.equal(root.get("profileId"), profileId);
+    }
+
+    public static Specification<ExpenseEntity> idGreaterThan(long afterId) {
+        return (root, query, builder) -> builder.greaterThan(root.get("id"), afterId);
+    }
+}
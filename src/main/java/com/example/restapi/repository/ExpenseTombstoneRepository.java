@@ -0,0 +1,74 @@
+package com.example.restapi.repository;
+
+import com.example.restapi.entity.ExpenseTombstoneEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA repository for the expense tombstones, read by the delta sync and written before expenses are deleted
+ * @author boroboro01
+ */
+public interface ExpenseTombstoneRepository extends JpaRepository<ExpenseTombstoneEntity, Long> {
+
+    /**
+     * It will find the deletes of the profile after the (deletedAt, id) position, in that order
+     * @param profileId
+     * @param deletedAt (deletedAt of the last delete already returned)
+     * @param id (id of the last delete already returned)
+     * @param horizon (newest deletedAt that is safe to return)
+     * @param limit
+     * @return list
+     */
+    @Query("select t from ExpenseTombstoneEntity t where t.profileId = :profileId and t.deletedAt <= :horizon " +
+            "and (t.deletedAt > :deletedAt or (t.deletedAt = :deletedAt and t.id > :id)) order by t.deletedAt, t.id")
+    List<ExpenseTombstoneEntity> findChangesAfter(Long profileId, Timestamp deletedAt, Long id, Timestamp horizon, Limit limit);
+
+    /**
+     * It will record tombstones for the stored expenses with the given ids, must run before they are deleted
+     * @param profileId (owner of the expenses)
+     * @param expenseIds (BINARY(16) expense ids, not empty)
+     * @return number of tombstones written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_expense_tombstones (expense_id, profile_id, deleted_at) " +
+            "SELECT e.expense_id, e.profile_id, NOW(6) FROM tbl_expenses e " +
+            "WHERE e.profile_id = :profileId AND e.expense_id IN (:expenseIds)", nativeQuery = true)
+    int recordDeletes(Long profileId, Collection<byte[]> expenseIds);
+
+    /**
+     * It will record tombstones for the stored expenses matching the filter, null filters are ignored
+     * @param profileId (owner of the expenses)
+     * @param category
+     * @param fromDate (first date, inclusive)
+     * @param toDate (last date, inclusive)
+     * @param minAmount (lowest amount, inclusive)
+     * @param maxAmount (highest amount, inclusive)
+     * @return number of tombstones written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tbl_expense_tombstones (expense_id, profile_id, deleted_at) " +
+            "SELECT e.expense_id, e.profile_id, NOW(6) FROM tbl_expenses e WHERE e.profile_id = :profileId " +
+            "AND (:category IS NULL OR e.category = :category) AND (:fromDate IS NULL OR e.date >= :fromDate) " +
+            "AND (:toDate IS NULL OR e.date <= :toDate) AND (:minAmount IS NULL OR e.amount >= :minAmount) " +
+            "AND (:maxAmount IS NULL OR e.amount <= :maxAmount)", nativeQuery = true)
+    int recordMatchingDeletes(Long profileId, String category, Date fromDate, Date toDate, BigDecimal minAmount, BigDecimal maxAmount);
+
+    /**
+     * It will delete the tombstones older than the retention period
+     * @param before
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ExpenseTombstoneEntity t where t.deletedAt < :before")
+    int deleteOlderThan(Timestamp before);
+}
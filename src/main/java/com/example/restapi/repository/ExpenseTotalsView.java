@@ -0,0 +1,34 @@
+package com.example.restapi.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * Projection of one GROUP BY bucket of expenses, built by the JPQL constructor expressions of
+ * ExpenseRepository so that no ExpenseEntity is hydrated. The extra constructors turn the grouping
+ * columns of each query into the bucket key.
+ * @author boroboro01
+ */
+public record ExpenseTotalsView(String bucket, Long count, BigDecimal total, BigDecimal min, BigDecimal max, Double average) {
+
+    /**
+     * Daily bucket, keyed yyyy-MM-dd
+     */
+    public ExpenseTotalsView(Date day, Long count, BigDecimal total, BigDecimal min, BigDecimal max, Double average) {
+        this(day.toString(), count, total, min, max, average);
+    }
+
+    /**
+     * ISO week bucket from MySQL YEARWEEK(date, 3), keyed yyyy-Www
+     */
+    public ExpenseTotalsView(Integer yearWeek, Long count, BigDecimal total, BigDecimal min, BigDecimal max, Double average) {
+        this(String.format("%04d-W%02d", yearWeek / 100, yearWeek % 100), count, total, min, max, average);
+    }
+
+    /**
+     * Monthly bucket, keyed yyyy-MM
+     */
+    public ExpenseTotalsView(Integer year, Integer month, Long count, BigDecimal total, BigDecimal min, BigDecimal max, Double average) {
+        this(String.format("%04d-%02d", year, month), count, total, min, max, average);
+    }
+}
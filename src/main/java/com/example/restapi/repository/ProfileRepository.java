@@ -2,6 +2,8 @@ package com.example.restapi.repository;
 
 import com.example.restapi.entity.ProfileEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
@@ -15,4 +17,14 @@ public interface ProfileRepository extends JpaRepository<ProfileEntity, Long> {
     Optional<ProfileEntity> findByEmail(String email);
 
     Boolean existsByEmail(String email);
+
+    /**
+     * It will replace the password hash of the profile
+     * @param email
+     * @param password (new hash)
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("update ProfileEntity p set p.password = :password where p.email = :email")
+    int updatePasswordByEmail(String email, String password);
 }
@@ -0,0 +1,51 @@
+package com.example.restapi.repository;
+
+import com.example.restapi.entity.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Long> {
+
+    /**
+     * It will find the refresh token by the hash of its value
+     * @param tokenHash
+     * @return Optional
+     */
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    /**
+     * It will revoke the token only when it is still active, so of two concurrent refreshes with
+     * the same token exactly one wins
+     * @param id
+     * @param now
+     * @return 1 when this call revoked the token, 0 when it was already revoked
+     */
+    @Modifying
+    @Query("update RefreshTokenEntity r set r.revokedAt = :now where r.id = :id and r.revokedAt is null")
+    int revokeIfActive(Long id, Timestamp now);
+
+    /**
+     * It will revoke every still active token of the family
+     * @param familyId
+     * @param now
+     * @return number of revoked tokens
+     */
+    @Modifying
+    @Query("update RefreshTokenEntity r set r.revokedAt = :now where r.familyId = :familyId and r.revokedAt is null")
+    int revokeFamily(String familyId, Timestamp now);
+
+    /**
+     * It will delete the tokens that have expired anyway
+     * @param now
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshTokenEntity r where r.expiresAt < :now")
+    int deleteExpired(Timestamp now);
+}
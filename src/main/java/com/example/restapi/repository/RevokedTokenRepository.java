@@ -0,0 +1,50 @@
+package com.example.restapi.repository;
+
+import com.example.restapi.entity.RevokedTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedTokenEntity, Long> {
+
+    /**
+     * It will find the revocations that are still live
+     * @param now
+     * @return list
+     */
+    List<RevokedTokenEntity> findByExpiresAtAfter(Timestamp now);
+
+    /**
+     * It will check whether the token with the fingerprint is already revoked
+     * @param fingerprint
+     * @return true or false
+     */
+    boolean existsByFingerprint(String fingerprint);
+
+    /**
+     * It will record the revocation in one statement, a concurrent revocation of the same token
+     * hits the unique fingerprint and only keeps the later expiry instead of failing
+     * @param fingerprint
+     * @param expiresAt
+     * @return affected rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO tbl_revoked_tokens (fingerprint, expires_at, created_at) VALUES (:fingerprint, :expiresAt, NOW()) " +
+            "ON DUPLICATE KEY UPDATE expires_at = GREATEST(expires_at, VALUES(expires_at))", nativeQuery = true)
+    int upsertRevocation(String fingerprint, Timestamp expiresAt);
+
+    /**
+     * It will delete the revocations of tokens that have expired anyway
+     * @param now
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedTokenEntity r where r.expiresAt < :now")
+    int deleteExpired(Timestamp now);
+}
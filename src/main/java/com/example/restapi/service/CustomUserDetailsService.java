@@ -2,23 +2,45 @@ package com.example.restapi.service;
 
 import com.example.restapi.entity.ProfileEntity;
 import com.example.restapi.repository.ProfileRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.ArrayList;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final ProfileRepository profileRepository;
 
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+
+    @Value("${jwt.principal-cache.ttl-seconds:300}")
+    private long principalCacheTtlSeconds;
+
+    private Cache<String, ProfileUserDetails> principalCache;
+
+    @PostConstruct
+    public void init() {
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                .build();
+    }
+
     /**
      * It will get the user details to database by email
      * @param email
@@ -26,9 +48,49 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return loadProfileUserDetails(email, true);
+    }
+
+    /**
+     * It will store the password re-hashed with the current cost, called after a successful login
+     * when the stored hash was made with a lower cost
+     * @param user (authenticated user)
+     * @param newPassword (new hash)
+     * @return user with the new hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        profileRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        log.info("Re-hashed the password of a profile with the current cost");
+        ProfileUserDetails profile = (ProfileUserDetails) user;
+        return new ProfileUserDetails(profile.getId(), profile.getProfileId(), profile.getUsername(), newPassword, profile.getAuthorities());
+    }
+
+    /**
+     * It will get the user details from the bounded principal cache, going to database only on a miss.
+     * Used to authenticate requests whose token does not carry the profile claims,
+     * so the cached principal never holds the password hash.
+     * @param email
+     * @return profileUserDetails
+     */
+    public ProfileUserDetails loadCachedUserByUsername(String email) throws UsernameNotFoundException {
+        return principalCache.get(email, key -> loadProfileUserDetails(key, false));
+    }
+
+    /**
+     * It will remove the cached principal, to be called when the profile changes
+     * @param email
+     */
+    public void evictCachedUser(String email) {
+        principalCache.invalidate(email);
+    }
+
+    private ProfileUserDetails loadProfileUserDetails(String email, boolean withPassword) {
         ProfileEntity profile = profileRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Profile not found for the email " + email));
-        log.info("Inside loadUserByUsername()::: printing the profile details {}", profile);
-        return new User(profile.getEmail(), profile.getPassword(), new ArrayList<>());
+        log.info("Inside loadUserByUsername()::: loaded the profile {}", profile.getProfileId());
+        return new ProfileUserDetails(profile.getId(), profile.getProfileId(), profile.getEmail(),
+                withPassword ? profile.getPassword() : "", new ArrayList<>());
     }
 }
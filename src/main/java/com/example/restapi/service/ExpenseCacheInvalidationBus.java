@@ -0,0 +1,23 @@
+package com.example.restapi.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcast channel for expense cache invalidations, so that every node running the api drops the
+ * same entries. Without a bus bean the cache is node local and relies on its TTL for other nodes.
+ * @author boroboro01
+ */
+public interface ExpenseCacheInvalidationBus {
+
+    /**
+     * It will send the invalidated cache key to the other nodes
+     * @param key (cache key of the expense, or profileId:* for every expense of the profile)
+     */
+    void publish(String key);
+
+    /**
+     * It will register the listener called for every key published by another node
+     * @param listener (invalidation listener)
+     */
+    void subscribe(Consumer<String> listener);
+}
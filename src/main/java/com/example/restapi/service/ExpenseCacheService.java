@@ -0,0 +1,128 @@
+package com.example.restapi.service;
+
+import com.example.restapi.dto.ExpenseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of single expenses.
+ * Entries are keyed by the owning profile and the expense id, evicted by size (W-TinyLFU) and TTL,
+ * and invalidated on every write, locally and through the optional invalidation bus.
+ * Cached dtos are shared between callers and must not be modified.
+ * @author boroboro01
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExpenseCacheService {
+
+    private static final String PROFILE_WILDCARD = "*";
+
+    private final ObjectProvider<ExpenseCacheInvalidationBus> invalidationBus;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${expense.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${expense.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<String, ExpenseDTO> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // Hit, miss, eviction and load counters are scraped from /actuator/prometheus as cache_* {cache="expenses"}
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "expenses");
+        invalidationBus.ifAvailable(bus -> bus.subscribe(this::evictLocal));
+    }
+
+    /**
+     * It will return the cached expense, loading it on a miss
+     * @param profileId (owning profile)
+     * @param expenseId (expense id)
+     * @param loader (database lookup, called once per key on a miss)
+     * @return expenseDTO
+     */
+    public ExpenseDTO get(Long profileId, String expenseId, Function<String, ExpenseDTO> loader) {
+        if (expenseId == null) {
+            // Nothing is cached under a missing id, the loader reports it
+            return loader.apply(null);
+        }
+        return cache.get(key(profileId, expenseId), key -> loader.apply(expenseId));
+    }
+
+    /**
+     * It will drop the expense now and again once the current transaction commits,
+     * so a read racing with the write cannot put the old row back
+     * @param profileId (owning profile)
+     * @param expenseId (expense id)
+     */
+    public void invalidate(Long profileId, String expenseId) {
+        if (expenseId == null) {
+            return;
+        }
+        invalidateKey(key(profileId, expenseId));
+    }
+
+    /**
+     * It will drop every cached expense of the profile, for bulk deletes that do not know the expense ids
+     * @param profileId (owning profile)
+     */
+    public void invalidateProfile(Long profileId) {
+        invalidateKey(key(profileId, PROFILE_WILDCARD));
+    }
+
+    private void invalidateKey(String key) {
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    private void evict(String key) {
+        evictLocal(key);
+        invalidationBus.ifAvailable(bus -> bus.publish(key));
+    }
+
+    private void evictLocal(String key) {
+        if (key.endsWith(":" + PROFILE_WILDCARD)) {
+            String prefix = key.substring(0, key.length() - PROFILE_WILDCARD.length());
+            cache.asMap().keySet().removeIf(cached -> cached.startsWith(prefix));
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Ids are matched on their bytes, so upper and lower case spellings of an id share one entry
+     * @param expenseId (expense id, never null)
+     */
+    private static String key(Long profileId, String expenseId) {
+        return profileId + ":" + expenseId.toLowerCase(Locale.ROOT);
+    }
+}
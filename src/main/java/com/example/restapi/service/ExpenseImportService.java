@@ -0,0 +1,22 @@
+package com.example.restapi.service;
+
+import com.example.restapi.dto.ExpenseImportResultDTO;
+import com.example.restapi.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service interface for the streaming expense import
+ * @author boroboro01
+ */
+public interface ExpenseImportService {
+
+    /**
+     * It will parse the upload row by row and insert the valid rows in bounded batches
+     * @param format (ndjson or csv)
+     * @param inputStream (request body)
+     * @return import result with the rejected rows
+     */
+    ExpenseImportResultDTO importExpenses(ExportFormat format, InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,91 @@
+package com.example.restapi.service;
+
+import com.example.restapi.dto.ExpenseFilterDTO;
+import com.example.restapi.dto.ExpenseRollupDTO;
+import com.example.restapi.dto.ExpenseRollupVerificationDTO;
+import com.example.restapi.dto.ExpenseSummaryDTO;
+import com.example.restapi.dto.ExpenseSummaryGroupBy;
+import com.example.restapi.entity.ExpenseEntity;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for the per profile, per category, per month expense rollups
+ * @author boroboro01
+ */
+public interface ExpenseRollupService {
+
+    /**
+     * It will add the expenses to their buckets, must run in the transaction that writes them
+     * @param expenses (expenses as they are stored)
+     */
+    void add(Collection<ExpenseEntity> expenses);
+
+    /**
+     * It will remove the expenses from their buckets, must run in the transaction that changes them
+     * and before their category, date or amount is modified
+     * @param expenses (expenses as they are stored)
+     */
+    void subtract(Collection<ExpenseEntity> expenses);
+
+    /**
+     * It will add the expense as currently stored to its bucket, without loading it
+     * @param profileId (owner of the expense)
+     * @param expenseId (expense id)
+     */
+    void addStored(Long profileId, String expenseId);
+
+    /**
+     * It will remove the expense as currently stored from its bucket, without loading it.
+     * Must run in the transaction that changes it and before its category, date or amount is modified.
+     * @param profileId (owner of the expense)
+     * @param expenseId (expense id)
+     */
+    void subtractStored(Long profileId, String expenseId);
+
+    /**
+     * It will remove the expenses with the given ids as currently stored from their buckets, without loading them
+     * @param profileId (owner of the expenses)
+     * @param expenseIds (expense ids)
+     */
+    void subtractStored(Long profileId, Collection<String> expenseIds);
+
+    /**
+     * It will remove the expenses matching the filter as currently stored from their buckets, without loading them
+     * @param profileId (owner of the expenses)
+     * @param filter (category, date range and amount bounds, null values are ignored)
+     */
+    void subtractMatching(Long profileId, ExpenseFilterDTO filter);
+
+    /**
+     * It will read the buckets of the logged in profile
+     * @param fromMonth (first day of the first month)
+     * @param toMonth (first day of the last month)
+     * @return list
+     */
+    List<ExpenseRollupDTO> getRollups(Date fromMonth, Date toMonth);
+
+    /**
+     * It will summarise the buckets of the logged in profile per category or per month, one row read per bucket.
+     * The rollups do not keep min and max, they are left empty.
+     * @param groupBy (category or month)
+     * @param fromMonth (first day of the first month)
+     * @param toMonth (first day of the last month)
+     * @return count, total and average per bucket
+     */
+    List<ExpenseSummaryDTO> getSummary(ExpenseSummaryGroupBy groupBy, Date fromMonth, Date toMonth);
+
+    /**
+     * It will compare the buckets of the logged in profile with a full aggregation of its expenses
+     * @return verification result
+     */
+    ExpenseRollupVerificationDTO verifyRollups();
+
+    /**
+     * It will recompute the buckets of the logged in profile from its expenses
+     * @return verification result after the rebuild
+     */
+    ExpenseRollupVerificationDTO rebuildRollups();
+}
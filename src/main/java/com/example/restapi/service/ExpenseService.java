@@ -1,7 +1,21 @@
 package com.example.restapi.service;
 
+import com.example.restapi.dto.ExpenseBatchEntryDTO;
+import com.example.restapi.dto.ExpenseBatchItemDTO;
+import com.example.restapi.dto.ExpenseChangesDTO;
 import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.dto.ExpenseFilterDTO;
+import com.example.restapi.dto.ExpensePageDTO;
+import com.example.restapi.dto.ExpenseSummaryDTO;
+import com.example.restapi.dto.ExpenseSummaryGroupBy;
+import com.example.restapi.dto.ExpenseVersionDTO;
+import com.example.restapi.dto.ExportFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -11,10 +25,30 @@ import java.util.List;
 public interface ExpenseService {
 
     /**
-     * It will fetch the expenses from database
-     * @return list
+     * It will fetch one page of expenses matching the filter from database
+     * @param filter (category, date range and amount bounds, all optional)
+     * @param cursor (opaque cursor from the previous page, null for the first page)
+     * @param size (requested page size, capped by expense.page.max-size)
+     * @return ExpensePageDTO
      */
-    List<ExpenseDTO> getAllExpenses();
+    ExpensePageDTO getExpenses(ExpenseFilterDTO filter, String cursor, Integer size);
+
+    /**
+     * It will compute the count and latest update of the expenses matching the filter without loading them
+     * @param filter (category, date range and amount bounds, all optional)
+     * @return ExpenseVersionDTO
+     */
+    ExpenseVersionDTO getExpensesVersion(ExpenseFilterDTO filter);
+
+    /**
+     * It will fetch the expenses created, updated or deleted after the sync cursor.
+     * Best effort: a write committing more than expense.sync.safety-lag-ms after it was stamped can be missed,
+     * clients should run a full sync from time to time.
+     * @param since (cursor returned by the previous sync, null for a full sync)
+     * @param size (maximum number of upserts and of deletes, capped by expense.page.max-size)
+     * @return ExpenseChangesDTO
+     */
+    ExpenseChangesDTO getExpenseChanges(String since, Integer size);
 
     /**
      * It will fetch the single expense details from database
@@ -30,6 +64,20 @@ public interface ExpenseService {
      */
     void deleteExpenseByExpenseId(String expenseId);
 
+    /**
+     * It will delete the expenses with the given ids in one statement, unknown ids are ignored
+     * @param expenseIds (expense ids)
+     * @return number of deleted expenses
+     */
+    int deleteExpenses(Collection<String> expenseIds);
+
+    /**
+     * It will delete every expense matching the filter in one statement
+     * @param filter (category, date range and amount bounds, at least one is required)
+     * @return number of deleted expenses
+     */
+    int deleteExpensesMatching(ExpenseFilterDTO filter);
+
     /**
      * It will save the expense details to database
      * @param expenseDTO (expense dto)
@@ -41,7 +89,48 @@ public interface ExpenseService {
      * It will update the expense details to database
      * @param expenseDTO (expense dto)
      * @param expenseId (expense id)
+     * @param expectedVersion (version from If-Match, null to skip the check)
      * @return ExpenseDTO
      */
-    ExpenseDTO updateExpenseDetails(ExpenseDTO expenseDTO, String expenseId);
+    ExpenseDTO updateExpenseDetails(ExpenseDTO expenseDTO, String expenseId, Long expectedVersion);
+
+    /**
+     * It will update only the given fields of the expense with a single UPDATE, without reading it
+     * @param expenseDTO (fields to change, null fields are left unchanged)
+     * @param expenseId (expense id)
+     * @param expectedVersion (version from If-Match, null to skip the check)
+     */
+    void patchExpenseDetails(ExpenseDTO expenseDTO, String expenseId, Long expectedVersion);
+
+    /**
+     * It will create, update and delete expenses in bulk using JDBC batching, all or nothing in one transaction
+     * @param entries (entries in request order, read lazily while they are written)
+     * @return result of every entry
+     */
+    List<ExpenseBatchItemDTO> processBatch(Iterator<ExpenseBatchEntryDTO> entries);
+
+    /**
+     * It will insert the expenses in JDBC batches within one transaction
+     * @param expenseDTOs (expenses to create)
+     * @return number of inserted expenses
+     */
+    int saveExpensesInBatch(List<ExpenseDTO> expenseDTOs);
+
+    /**
+     * It will aggregate the expenses in the database, returning one row per bucket
+     * @param groupBy (category, day, week or month)
+     * @param from (first date, inclusive, null for no lower bound)
+     * @param to (last date, inclusive, null for no upper bound)
+     * @param fromRollups (read the rollups, only for category and month over whole months, without min and max)
+     * @return totals, count, min, max and average per bucket
+     */
+    List<ExpenseSummaryDTO> getExpenseSummary(ExpenseSummaryGroupBy groupBy, Date from, Date to, boolean fromRollups);
+
+    /**
+     * It will stream every expense to the output stream without holding them in memory
+     * @param format (ndjson or csv)
+     * @param outputStream (response body)
+     * @return number of exported expenses
+     */
+    long exportExpenses(ExportFormat format, OutputStream outputStream) throws IOException;
 }
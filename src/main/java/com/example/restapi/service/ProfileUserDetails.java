@@ -0,0 +1,26 @@
+package com.example.restapi.service;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Spring security principal for a profile.
+ * Carries the profile identifiers so that request handling does not need to go back to the database.
+ * @author boroboro01
+ */
+@Getter
+public class ProfileUserDetails extends User {
+
+    private final Long id;
+
+    private final String profileId;
+
+    public ProfileUserDetails(Long id, String profileId, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.id = id;
+        this.profileId = profileId;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.restapi.service;
+
+import com.example.restapi.entity.ProfileEntity;
+import com.example.restapi.entity.RefreshTokenEntity;
+import com.example.restapi.exceptions.InvalidRefreshTokenException;
+import com.example.restapi.repository.ProfileRepository;
+import com.example.restapi.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens.
+ * The client gets 256 random bits, the table only keeps their SHA-256 hash. Every refresh revokes the
+ * presented token and issues a new one in the same family; presenting a revoked token again means it
+ * was stolen or replayed, so the whole family is revoked and the user has to login again.
+ * @author boroboro01
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final ProfileRepository profileRepository;
+
+    @Value("${jwt.refresh-token.ttl-days:30}")
+    private long refreshTokenTtlDays;
+
+    /**
+     * Result of a rotation, the principal to issue the access token for and the new refresh token
+     */
+    public record Rotation(ProfileUserDetails principal, String refreshToken) {
+    }
+
+    /**
+     * It will issue a refresh token starting a new family, called on login
+     * @param principal (authenticated profile)
+     * @return refresh token to hand to the client
+     */
+    @Transactional
+    public String issue(ProfileUserDetails principal) {
+        return issue(principal.getId(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * It will exchange the refresh token for a new one and load the profile it belongs to
+     * @param refreshToken (refresh token from the client)
+     * @return rotation
+     * @throws InvalidRefreshTokenException when the token is unknown, expired or was already used
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshTokenEntity entity = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+        Timestamp now = Timestamp.from(Instant.now());
+        if (refreshTokenRepository.revokeIfActive(entity.getId(), now) == 0) {
+            // Already rotated or signed out: treat it as a replay and cut off every token of that login
+            int revoked = refreshTokenRepository.revokeFamily(entity.getFamilyId(), now);
+            log.warn("Reuse of a revoked refresh token, revoked {} tokens of its family", revoked);
+            throw new InvalidRefreshTokenException("Refresh token is invalid");
+        }
+        if (entity.getExpiresAt().before(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+        ProfileEntity profile = profileRepository.findById(entity.getProfileDbId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+        ProfileUserDetails principal = new ProfileUserDetails(profile.getId(), profile.getProfileId(),
+                profile.getEmail(), "", new ArrayList<>());
+        return new Rotation(principal, issue(profile.getId(), entity.getFamilyId()));
+    }
+
+    /**
+     * It will revoke the refresh token and every token rotated from the same login, called on signout
+     * @param refreshToken (refresh token from the client)
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(entity -> refreshTokenRepository.revokeFamily(entity.getFamilyId(), Timestamp.from(Instant.now())));
+    }
+
+    /**
+     * Rows of expired tokens are useless, remove them so the table stays as small as the live sessions
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Timestamp.from(Instant.now()));
+        log.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private String issue(Long profileDbId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        SECURE_RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshTokenEntity.builder()
+                .tokenHash(hash(refreshToken))
+                .familyId(familyId)
+                .profileDbId(profileDbId)
+                .expiresAt(Timestamp.from(Instant.now().plus(Duration.ofDays(refreshTokenTtlDays))))
+                .build());
+        return refreshToken;
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
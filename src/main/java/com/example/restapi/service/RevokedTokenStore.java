@@ -0,0 +1,26 @@
+package com.example.restapi.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Persistent backend for token revocations, so that they survive a restart.
+ * The in-memory blacklist stays the source of truth for lookups, the store is only written on
+ * signout and read on startup.
+ * @author boroboro01
+ */
+public interface RevokedTokenStore {
+
+    /**
+     * It will persist a revocation
+     * @param fingerprint (jti or hash of the token)
+     * @param expiresAt (expiry of the revoked token)
+     */
+    void save(String fingerprint, Instant expiresAt);
+
+    /**
+     * It will load every revocation whose token has not expired yet
+     * @return map of fingerprint to expiry
+     */
+    Map<String, Instant> loadActive();
+}
@@ -1,19 +1,138 @@
 package com.example.restapi.service;
 
+import com.example.restapi.util.JwtTokenUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Blacklist of revoked tokens.
+ * Entries are keyed by a compact fingerprint of the token (its jti, or a SHA-256 hash for tokens without one)
+ * and are evicted automatically once the token has expired, so the memory use is bounded by the number of
+ * revoked tokens that are still live.
+ * @author boroboro01
+ */
 @Service
+@Slf4j
+@RequiredArgsConstructor
 public class TokenBlacklistService {
-    private Set<String> blacklist = new HashSet<>();
 
+    /**
+     * Rough per entry cost of the cache node, the key string and the boxed expiry
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 120;
+
+    private final JwtTokenUtil jwtTokenUtil;
+
+    private final ObjectProvider<RevokedTokenStore> revokedTokenStore;
+
+    private Cache<String, Long> blacklist;
+
+    @PostConstruct
+    public void init() {
+        blacklist = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String fingerprint, Long expiresAt, long currentTime) {
+                        return remainingNanos(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String fingerprint, Long expiresAt, long currentTime, long currentDuration) {
+                        return remainingNanos(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String fingerprint, Long expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+        revokedTokenStore.ifAvailable(store -> {
+            store.loadActive().forEach((fingerprint, expiresAt) -> blacklist.put(fingerprint, expiresAt.toEpochMilli()));
+            log.info("Loaded {} token revocations from the persistent store", blacklist.estimatedSize());
+        });
+    }
+
+    /**
+     * It will revoke the token until it expires
+     * @param token (jwt token)
+     */
     public void addTokenToBlacklist(String token) {
-        blacklist.add(token);
+        Claims claims;
+        try {
+            claims = jwtTokenUtil.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // An expired or invalid token is already rejected, there is nothing to revoke
+            return;
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return;
+        }
+        String fingerprint = fingerprint(claims, token);
+        blacklist.put(fingerprint, expiration.getTime());
+        revokedTokenStore.ifAvailable(store -> store.save(fingerprint, expiration.toInstant()));
+    }
+
+    /**
+     * It will check the already verified token against the blacklist
+     * @param claims (verified claims of the token)
+     * @param token (jwt token)
+     * @return true when the token was revoked
+     */
+    public boolean isTokenBlacklisted(Claims claims, String token) {
+        return blacklist.getIfPresent(fingerprint(claims, token)) != null;
+    }
+
+    /**
+     * Number of revoked tokens that are still live
+     * @return count
+     */
+    public long getRevokedTokenCount() {
+        blacklist.cleanUp();
+        return blacklist.estimatedSize();
+    }
+
+    /**
+     * Estimated heap used by the blacklist
+     * @return bytes
+     */
+    public long getEstimatedMemoryBytes() {
+        long entries = getRevokedTokenCount();
+        return entries * ENTRY_OVERHEAD_BYTES + blacklist.asMap().keySet().stream().mapToLong(String::length).sum();
+    }
+
+    private static long remainingNanos(long expiresAt) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt - Instant.now().toEpochMilli()));
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        return blacklist.contains(token);
+    private static String fingerprint(Claims claims, String token) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
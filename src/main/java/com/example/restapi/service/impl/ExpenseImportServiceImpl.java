@@ -0,0 +1,206 @@
+package com.example.restapi.service.impl;
+
+import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.dto.ExpenseImportErrorDTO;
+import com.example.restapi.dto.ExpenseImportResultDTO;
+import com.example.restapi.dto.ExportFormat;
+import com.example.restapi.exceptions.InvalidRequestException;
+import com.example.restapi.io.ExpenseRequest;
+import com.example.restapi.mapper.ExpenseMapper;
+import com.example.restapi.service.ExpenseImportService;
+import com.example.restapi.service.ExpenseService;
+import com.example.restapi.util.CsvUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for the streaming expense import.
+ * The body is read one record at a time and valid rows are handed to the database every batch_size rows,
+ * so the request is only consumed as fast as it can be written (back-pressure) and the heap holds at most
+ * one batch regardless of the size of the upload.
+ * @author boroboro01
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseImportServiceImpl implements ExpenseImportService {
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "category", "date", "amount");
+
+    private final ExpenseService expenseService;
+    private final ExpenseMapper expenseMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${expense.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Longest accepted CSV record or NDJSON line, a broken row (unterminated quote) is rejected past it
+     */
+    @Value("${expense.import.max-record-chars:65536}")
+    private int maxRecordChars;
+
+    /**
+     * It will parse the upload row by row and insert the valid rows in bounded batches
+     * @param format (ndjson or csv)
+     * @param inputStream (request body)
+     * @return import result with the rejected rows
+     */
+    @Override
+    public ExpenseImportResultDTO importExpenses(ExportFormat format, InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        LineNumberReader reader = new LineNumberReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = format == ExportFormat.CSV ? readCsvHeader(reader) : null;
+        List<ExpenseDTO> pending = new ArrayList<>(batchSize);
+        List<ExpenseImportErrorDTO> errors = new ArrayList<>();
+        long rowsRead = 0;
+        long rowsImported = 0;
+        long rowsRejected = 0;
+        while (true) {
+            long line = reader.getLineNumber() + 1;
+            ExpenseRequest expenseRequest;
+            try {
+                if (format == ExportFormat.CSV) {
+                    List<String> record = CsvUtil.readRecord(reader, maxRecordChars);
+                    if (record == null) {
+                        break;
+                    }
+                    if (record.size() == 1 && record.get(0).isBlank()) {
+                        continue;
+                    }
+                    expenseRequest = toExpenseRequest(columns, record);
+                } else {
+                    String json = CsvUtil.readLine(reader, maxRecordChars);
+                    if (json == null) {
+                        break;
+                    }
+                    if (json.isBlank()) {
+                        continue;
+                    }
+                    expenseRequest = objectMapper.readValue(json, ExpenseRequest.class);
+                }
+            } catch (JsonProcessingException e) {
+                rowsRead++;
+                rowsRejected++;
+                addError(errors, line, List.of("Malformed JSON: " + e.getOriginalMessage()));
+                continue;
+            } catch (IllegalArgumentException e) {
+                rowsRead++;
+                rowsRejected++;
+                addError(errors, line, List.of(e.getMessage()));
+                continue;
+            }
+            rowsRead++;
+            List<String> violations = validate(expenseRequest);
+            if (!violations.isEmpty()) {
+                rowsRejected++;
+                addError(errors, line, violations);
+                continue;
+            }
+            pending.add(expenseMapper.toExpenseDTO(expenseRequest));
+            if (pending.size() == batchSize) {
+                rowsImported += expenseService.saveExpensesInBatch(pending);
+                pending.clear();
+            }
+        }
+        if (!pending.isEmpty()) {
+            rowsImported += expenseService.saveExpensesInBatch(pending);
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long rowsPerSecond = rowsRead * 1000 / elapsedMillis;
+        log.info("Imported {} of {} expense rows in {} ms ({} rows/s), {} rejected", rowsImported, rowsRead, elapsedMillis, rowsPerSecond, rowsRejected);
+        return ExpenseImportResultDTO.builder()
+                .rowsRead(rowsRead)
+                .rowsImported(rowsImported)
+                .rowsRejected(rowsRejected)
+                .errors(errors)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    /**
+     * Read the header row and resolve the position of every known column
+     * @param reader
+     * @return column name to position
+     */
+    private Map<String, Integer> readCsvHeader(LineNumberReader reader) throws IOException {
+        List<String> header;
+        try {
+            header = CsvUtil.readRecord(reader, maxRecordChars);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("The CSV header is invalid: " + e.getMessage());
+        }
+        if (header == null) {
+            throw new InvalidRequestException("The CSV upload is empty, a header row is required");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new InvalidRequestException("The CSV header is missing the columns " + missing);
+        }
+        return columns;
+    }
+
+    private ExpenseRequest toExpenseRequest(Map<String, Integer> columns, List<String> record) {
+        String date = field(columns, record, "date");
+        String amount = field(columns, record, "amount");
+        return ExpenseRequest.builder()
+                .name(field(columns, record, "name"))
+                .note(field(columns, record, "note"))
+                .category(field(columns, record, "category"))
+                .date(date == null ? null : Date.valueOf(date))
+                .amount(amount == null ? null : new BigDecimal(amount))
+                .build();
+    }
+
+    private static String field(Map<String, Integer> columns, List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isBlank()) {
+            return null;
+        }
+        return record.get(index).trim();
+    }
+
+    private List<String> validate(ExpenseRequest expenseRequest) {
+        return validator.validate(expenseRequest).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Only the first rejected rows are reported, so a bad file cannot make the response unbounded
+     */
+    private void addError(List<ExpenseImportErrorDTO> errors, long line, List<String> messages) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(ExpenseImportErrorDTO.builder().line(line).errors(messages).build());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.restapi.service.impl;
+
+import com.example.restapi.dto.ExpenseFilterDTO;
+import com.example.restapi.dto.ExpenseRollupDTO;
+import com.example.restapi.dto.ExpenseRollupVerificationDTO;
+import com.example.restapi.dto.ExpenseSummaryDTO;
+import com.example.restapi.dto.ExpenseSummaryGroupBy;
+import com.example.restapi.entity.ExpenseEntity;
+import com.example.restapi.entity.ExpenseRollupEntity;
+import com.example.restapi.repository.ExpenseRollupBucket;
+import com.example.restapi.repository.ExpenseRollupRepository;
+import com.example.restapi.service.ExpenseRollupService;
+import com.example.restapi.util.SecurityUtil;
+import com.example.restapi.util.UuidUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for the expense rollups.
+ * Deltas are first summed per bucket in memory, so a batch touching many expenses of the same
+ * category and month issues a single upsert for that bucket.
+ * @author boroboro01
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseRollupServiceImpl implements ExpenseRollupService {
+
+    /**
+     * Bucket category of expenses without one, the same value the native upserts coalesce NULL to
+     */
+    private static final String NO_CATEGORY = "";
+
+    private final ExpenseRollupRepository expenseRollupRepository;
+
+    @Override
+    @Transactional
+    public void add(Collection<ExpenseEntity> expenses) {
+        applyDeltas(expenses, 1);
+    }
+
+    @Override
+    @Transactional
+    public void subtract(Collection<ExpenseEntity> expenses) {
+        applyDeltas(expenses, -1);
+    }
+
+    @Override
+    @Transactional
+    public void addStored(Long profileId, String expenseId) {
+        expenseRollupRepository.upsertStoredExpense(profileId, UuidUtil.toBytes(expenseId), 1);
+    }
+
+    @Override
+    @Transactional
+    public void subtractStored(Long profileId, String expenseId) {
+        expenseRollupRepository.upsertStoredExpense(profileId, UuidUtil.toBytes(expenseId), -1);
+    }
+
+    @Override
+    @Transactional
+    public void subtractStored(Long profileId, Collection<String> expenseIds) {
+        List<byte[]> binaryIds = UuidUtil.toBytes(expenseIds);
+        if (!binaryIds.isEmpty()) {
+            expenseRollupRepository.subtractStoredExpenses(profileId, binaryIds);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void subtractMatching(Long profileId, ExpenseFilterDTO filter) {
+        expenseRollupRepository.subtractMatchingExpenses(profileId, filter.getCategory(), filter.getFromDate(), filter.getToDate(),
+                filter.getMinAmount(), filter.getMaxAmount());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExpenseRollupDTO> getRollups(Date fromMonth, Date toMonth) {
+        return expenseRollupRepository.findByProfileIdAndBucketMonthBetweenOrderByBucketMonthAscCategoryAsc(SecurityUtil.getLoggedInProfileId(), fromMonth, toMonth)
+                .stream()
+                .filter(rollup -> rollup.getExpenseCount() > 0)
+                .map(this::mapToExpenseRollupDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExpenseSummaryDTO> getSummary(ExpenseSummaryGroupBy groupBy, Date fromMonth, Date toMonth) {
+        if (groupBy != ExpenseSummaryGroupBy.CATEGORY && groupBy != ExpenseSummaryGroupBy.MONTH) {
+            throw new IllegalArgumentException("The rollups are only kept per category and month, not per " + groupBy);
+        }
+        // Sorted like the GROUP BY queries, expenses without a category first
+        Map<String, BigDecimal> totals = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        Map<String, Long> counts = new HashMap<>();
+        for (ExpenseRollupEntity rollup : expenseRollupRepository.findByProfileIdAndBucketMonthBetweenOrderByBucketMonthAscCategoryAsc(
+                SecurityUtil.getLoggedInProfileId(), fromMonth, toMonth)) {
+            if (rollup.getExpenseCount() <= 0) {
+                continue;
+            }
+            String bucket = groupBy == ExpenseSummaryGroupBy.MONTH
+                    ? YearMonth.from(rollup.getBucketMonth().toLocalDate()).toString()
+                    : NO_CATEGORY.equals(rollup.getCategory()) ? null : rollup.getCategory();
+            totals.merge(bucket, rollup.getTotalAmount(), BigDecimal::add);
+            counts.merge(bucket, rollup.getExpenseCount(), Long::sum);
+        }
+        return totals.entrySet().stream()
+                .map(entry -> ExpenseSummaryDTO.builder()
+                        .bucket(entry.getKey())
+                        .count(counts.get(entry.getKey()))
+                        .total(entry.getValue())
+                        .average(entry.getValue().divide(BigDecimal.valueOf(counts.get(entry.getKey())), 2, RoundingMode.HALF_UP))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpenseRollupVerificationDTO verifyRollups() {
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        Map<BucketKey, ExpenseRollupEntity> stored = new HashMap<>();
+        for (ExpenseRollupEntity rollup : expenseRollupRepository.findByProfileId(profileId)) {
+            stored.put(new BucketKey(profileId, rollup.getCategory(), rollup.getBucketMonth()), rollup);
+        }
+        List<String> mismatches = new ArrayList<>();
+        List<ExpenseRollupBucket> computed = expenseRollupRepository.computeBuckets(profileId);
+        for (ExpenseRollupBucket bucket : computed) {
+            ExpenseRollupEntity rollup = stored.remove(new BucketKey(profileId, bucket.getCategory(), bucket.getBucketMonth()));
+            if (rollup == null) {
+                mismatches.add(describe(bucket.getCategory(), bucket.getBucketMonth()) + ": missing, expected "
+                        + bucket.getTotalAmount() + " over " + bucket.getExpenseCount() + " expenses");
+            } else if (rollup.getTotalAmount().compareTo(bucket.getTotalAmount()) != 0 || !rollup.getExpenseCount().equals(bucket.getExpenseCount())) {
+                mismatches.add(describe(bucket.getCategory(), bucket.getBucketMonth()) + ": expected " + bucket.getTotalAmount()
+                        + " over " + bucket.getExpenseCount() + " expenses, found " + rollup.getTotalAmount()
+                        + " over " + rollup.getExpenseCount());
+            }
+        }
+        // Whatever is left has no expenses anymore, it is only consistent when it has been emptied
+        stored.values().stream()
+                .filter(rollup -> rollup.getExpenseCount() != 0 || rollup.getTotalAmount().signum() != 0)
+                .forEach(rollup -> mismatches.add(describe(rollup.getCategory(), rollup.getBucketMonth()) + ": expected no expenses, found "
+                        + rollup.getTotalAmount() + " over " + rollup.getExpenseCount()));
+        log.info("Verified {} rollup buckets, {} mismatches", computed.size(), mismatches.size());
+        return ExpenseRollupVerificationDTO.builder()
+                .bucketsChecked(computed.size())
+                .mismatches(mismatches)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public ExpenseRollupVerificationDTO rebuildRollups() {
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        expenseRollupRepository.deleteByProfile(profileId);
+        int buckets = expenseRollupRepository.insertComputedBuckets(profileId);
+        log.info("Rebuilt {} rollup buckets", buckets);
+        return verifyRollups();
+    }
+
+    private void applyDeltas(Collection<ExpenseEntity> expenses, int sign) {
+        Map<BucketKey, BigDecimal> amounts = new LinkedHashMap<>();
+        Map<BucketKey, Long> counts = new HashMap<>();
+        for (ExpenseEntity expense : expenses) {
+            if (expense.getDate() == null || expense.getAmount() == null) {
+                continue;
+            }
+            BucketKey key = new BucketKey(expense.getProfileId(), Objects.toString(expense.getCategory(), NO_CATEGORY), toBucketMonth(expense.getDate()));
+            amounts.merge(key, sign < 0 ? expense.getAmount().negate() : expense.getAmount(), BigDecimal::add);
+            counts.merge(key, (long) sign, Long::sum);
+        }
+        amounts.forEach((key, amount) ->
+                expenseRollupRepository.upsertDelta(key.profileId(), key.category(), key.bucketMonth(), amount, counts.get(key)));
+    }
+
+    private static Date toBucketMonth(Date date) {
+        return Date.valueOf(date.toLocalDate().withDayOfMonth(1));
+    }
+
+    private static String describe(String category, Date bucketMonth) {
+        return YearMonth.from(bucketMonth.toLocalDate()) + " " + category;
+    }
+
+    private ExpenseRollupDTO mapToExpenseRollupDTO(ExpenseRollupEntity rollup) {
+        return ExpenseRollupDTO.builder()
+                .month(YearMonth.from(rollup.getBucketMonth().toLocalDate()).toString())
+                .category(NO_CATEGORY.equals(rollup.getCategory()) ? null : rollup.getCategory())
+                .total(rollup.getTotalAmount())
+                .count(rollup.getExpenseCount())
+                .build();
+    }
+
+    private record BucketKey(Long profileId, String category, Date bucketMonth) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BucketKey other && Objects.equals(profileId, other.profileId)
+                    && Objects.equals(category, other.category)
+                    && Objects.equals(bucketMonth.toLocalDate(), other.bucketMonth.toLocalDate());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(profileId, category, bucketMonth.toLocalDate());
+        }
+    }
+}
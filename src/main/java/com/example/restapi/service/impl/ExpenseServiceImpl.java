@@ -1,19 +1,72 @@
 package com.example.restapi.service.impl;
 
+import com.example.restapi.dto.ExpenseBatchEntryDTO;
+import com.example.restapi.dto.ExpenseBatchItemDTO;
+import com.example.restapi.dto.ExpenseChangesDTO;
 import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.dto.ExpenseFilterDTO;
+import com.example.restapi.dto.ExpensePageDTO;
+import com.example.restapi.dto.ExpenseSummaryDTO;
+import com.example.restapi.dto.ExpenseSummaryGroupBy;
+import com.example.restapi.dto.ExpenseVersionDTO;
+import com.example.restapi.dto.ExportFormat;
 import com.example.restapi.entity.ExpenseEntity;
+import com.example.restapi.entity.ExpenseTombstoneEntity;
+import com.example.restapi.exceptions.InvalidRequestException;
+import com.example.restapi.exceptions.PreconditionFailedException;
 import com.example.restapi.exceptions.ResourceNotFoundException;
+import com.example.restapi.exceptions.SyncCursorExpiredException;
+import com.example.restapi.mapper.ExpenseMapper;
 import com.example.restapi.repository.ExpenseRepository;
+import com.example.restapi.repository.ExpenseSpecifications;
+import com.example.restapi.repository.ExpenseTombstoneRepository;
+import com.example.restapi.repository.ExpenseTotalsView;
+import com.example.restapi.service.ExpenseCacheService;
+import com.example.restapi.service.ExpenseRollupService;
 import com.example.restapi.service.ExpenseService;
+import com.example.restapi.util.CsvUtil;
+import com.example.restapi.util.CursorUtil;
+import com.example.restapi.util.SecurityUtil;
+import com.example.restapi.util.UuidUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service implementation for Expense module
@@ -24,34 +77,153 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ExpenseServiceImpl implements ExpenseService {
 
+    private static final Date MIN_DATE = Date.valueOf("1000-01-01");
+    private static final Date MAX_DATE = Date.valueOf("9999-12-31");
+
     private final ExpenseRepository expenseRepository;
-    private final ModelMapper modelMapper;
+    private final ExpenseTombstoneRepository expenseTombstoneRepository;
+    private final ExpenseMapper expenseMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ExpenseRollupService expenseRollupService;
+    private final ExpenseCacheService expenseCacheService;
+
+    @Value("${expense.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${expense.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${expense.sync.safety-lag-ms:60000}")
+    private long syncSafetyLagMs;
+
+    @Value("${expense.sync.tombstone-retention-days:90}")
+    private long tombstoneRetentionDays;
 
     /**
-     * It will fetch the expenses from database
-     * @return list
+     * It will fetch one page of expenses matching the filter from database.
+     * The filter is applied by MySQL, the page is keyset paginated on id without a count query.
+     * @param filter (category, date range and amount bounds, all optional)
+     * @param cursor (opaque cursor from the previous page, null for the first page)
+     * @param size (requested page size, capped by expense.page.max-size)
+     * @return ExpensePageDTO
      */
     @Override
-    public List<ExpenseDTO> getAllExpenses() {
-        // Call the repository method
-        List<ExpenseEntity> list = expenseRepository.findAll();
-        log.info("Printing the data from repository {}", list);
-        // Convert the Entity object to DTO object
+    public ExpensePageDTO getExpenses(ExpenseFilterDTO filter, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : CursorUtil.decode(cursor, 1)[0];
+        // Fetch one extra row to know whether there is a next page
+        List<ExpenseEntity> list = expenseRepository.findBy(
+                ExpenseSpecifications.search(SecurityUtil.getLoggedInProfileId(), filter, afterId),
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        log.info("Fetched {} expenses after id {} for filter {}", list.size(), afterId, filter);
+        String nextCursor = null;
+        if (list.size() > pageSize) {
+            list = list.subList(0, pageSize);
+            nextCursor = CursorUtil.encode(list.get(pageSize - 1).getId());
+        }
         List<ExpenseDTO> listOfExpenses = list.stream().map(expenseEntity -> mapToExpenseDTO(expenseEntity)).collect(Collectors.toList());
-        // Return the list
-        return listOfExpenses;
+        return ExpensePageDTO.builder()
+                .expenses(listOfExpenses)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * It will compute the count and latest update of the expenses matching the filter.
+     * Only the aggregate leaves the database, (profile_id, updated_at) keeps it an index scan for unfiltered lists.
+     * @param filter (category, date range and amount bounds, all optional)
+     * @return ExpenseVersionDTO
+     */
+    @Override
+    public ExpenseVersionDTO getExpensesVersion(ExpenseFilterDTO filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<ExpenseEntity> root = query.from(ExpenseEntity.class);
+        query.multiselect(builder.count(root), builder.greatest(root.<Timestamp>get("updatedAt")))
+                .where(ExpenseSpecifications.search(SecurityUtil.getLoggedInProfileId(), filter, 0L).toPredicate(root, query, builder));
+        Tuple version = entityManager.createQuery(query).getSingleResult();
+        return ExpenseVersionDTO.builder()
+                .count(version.get(0, Long.class))
+                .lastModified(version.get(1, Timestamp.class))
+                .build();
+    }
+
+    /**
+     * It will fetch the changes after the sync cursor, keyset paginated on (updatedAt, id) for the expenses
+     * and on (deletedAt, id) for the tombstones, so the cost depends on the number of changes only.
+     * Rows newer than expense.sync.safety-lag-ms are held back so that transactions that started before them
+     * have the time to commit. This is best effort, a write committing later than the lag after it was stamped,
+     * or stamped by a clock skewed by more than the lag, can land behind the cursor and is only seen by a full sync.
+     * @param since (cursor returned by the previous sync, null for a full sync)
+     * @param size (maximum number of upserts and of deletes)
+     * @return ExpenseChangesDTO
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ExpenseChangesDTO getExpenseChanges(String since, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        long now = System.currentTimeMillis();
+        Timestamp horizon = new Timestamp(now - syncSafetyLagMs);
+        // A full sync starts from the first expense, deletes made before it are of no interest
+        long[] position = since == null || since.isBlank()
+                ? new long[]{0, 0, CursorUtil.toMicros(horizon), Long.MAX_VALUE}
+                : CursorUtil.decode(since, 4);
+        if (position[2] < CursorUtil.toMicros(new Timestamp(now - Duration.ofDays(tombstoneRetentionDays).toMillis()))) {
+            throw new SyncCursorExpiredException("The sync cursor is older than the tombstone retention, a full sync is required");
+        }
+
+        List<ExpenseEntity> upserts = expenseRepository.findBy(
+                ExpenseSpecifications.changedAfter(profileId, CursorUtil.fromMicros(position[0]), position[1], horizon),
+                query -> query.sortBy(Sort.by("updatedAt", "id")).limit(pageSize + 1).all());
+        boolean moreUpserts = upserts.size() > pageSize;
+        if (moreUpserts) {
+            upserts = upserts.subList(0, pageSize);
+        }
+        if (!upserts.isEmpty()) {
+            ExpenseEntity last = upserts.get(upserts.size() - 1);
+            position[0] = CursorUtil.toMicros(last.getUpdatedAt());
+            position[1] = last.getId();
+        }
+
+        List<ExpenseTombstoneEntity> tombstones = expenseTombstoneRepository.findChangesAfter(
+                profileId, CursorUtil.fromMicros(position[2]), position[3], horizon, Limit.of(pageSize + 1));
+        boolean moreDeletes = tombstones.size() > pageSize;
+        if (moreDeletes) {
+            tombstones = tombstones.subList(0, pageSize);
+            ExpenseTombstoneEntity last = tombstones.get(pageSize - 1);
+            position[2] = CursorUtil.toMicros(last.getDeletedAt());
+            position[3] = last.getId();
+        } else if (CursorUtil.toMicros(horizon) > position[2]) {
+            // Every delete up to the horizon was returned, move past it so an idle cursor does not expire
+            position[2] = CursorUtil.toMicros(horizon);
+            position[3] = Long.MAX_VALUE;
+        }
+        log.info("Fetched {} upserts and {} deletes for the sync of profile {}", upserts.size(), tombstones.size(), profileId);
+        return ExpenseChangesDTO.builder()
+                .upserts(upserts.stream().map(expenseEntity -> mapToExpenseDTO(expenseEntity)).collect(Collectors.toList()))
+                .deletedExpenseIds(tombstones.stream().map(ExpenseTombstoneEntity::getExpenseId).collect(Collectors.toList()))
+                .nextCursor(CursorUtil.encode(position))
+                .hasMore(moreUpserts || moreDeletes)
+                .build();
     }
 
     /**
-     * It will fetch the single expense from database
+     * It will fetch the single expense from the cache, going to database only on a miss
      * @param expenseId
      * @return ExpenseDTO
      */
     @Override
     public ExpenseDTO getExpenseByExpenseId(String expenseId) {
-        ExpenseEntity expenseEntity = getExpenseEntity(expenseId);
-        log.info("Printing the expense entity details {}", expenseEntity);
-        return mapToExpenseDTO(expenseEntity);
+        return expenseCacheService.get(SecurityUtil.getLoggedInProfileId(), expenseId, key -> {
+            ExpenseEntity expenseEntity = getExpenseEntity(key);
+            log.info("Printing the expense entity details {}", expenseEntity);
+            return mapToExpenseDTO(expenseEntity);
+        });
     }
 
     /**
@@ -60,10 +232,58 @@ public class ExpenseServiceImpl implements ExpenseService {
      * @return void
      */
     @Override
+    @Transactional
     public void deleteExpenseByExpenseId(String expenseId) {
-        ExpenseEntity expenseEntity = getExpenseEntity(expenseId);
-        log.info("Printing the expense entity {}", expenseEntity);
-        expenseRepository.delete(expenseEntity);
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        // The rollup and the tombstone are written from the stored row, then the row goes, nothing is loaded
+        expenseRollupService.subtractStored(profileId, expenseId);
+        recordDeletes(profileId, List.of(expenseId));
+        if (expenseRepository.deleteByExpenseIdAndProfileId(expenseId, profileId) == 0) {
+            throw new ResourceNotFoundException("Expense not found for the id " + expenseId);
+        }
+        expenseCacheService.invalidate(profileId, expenseId);
+        log.info("Deleted the expense {} of profile {}", expenseId, profileId);
+    }
+
+    /**
+     * It will delete the expenses with the given ids, one statement each for the rollups,
+     * the tombstones and the rows whatever the number of ids
+     * @param expenseIds (expense ids)
+     * @return number of deleted expenses
+     */
+    @Override
+    @Transactional
+    public int deleteExpenses(Collection<String> expenseIds) {
+        if (expenseIds.isEmpty()) {
+            return 0;
+        }
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        expenseRollupService.subtractStored(profileId, expenseIds);
+        recordDeletes(profileId, expenseIds);
+        int deleted = expenseRepository.deleteByProfileIdAndExpenseIdIn(profileId, expenseIds);
+        expenseIds.forEach(expenseId -> expenseCacheService.invalidate(profileId, expenseId));
+        log.info("Deleted {} of {} expenses of profile {}", deleted, expenseIds.size(), profileId);
+        return deleted;
+    }
+
+    /**
+     * It will delete every expense matching the filter, one statement each for the rollups,
+     * the tombstones and the rows
+     * @param filter (category, date range and amount bounds, at least one is required)
+     * @return number of deleted expenses
+     */
+    @Override
+    @Transactional
+    public int deleteExpensesMatching(ExpenseFilterDTO filter) {
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        expenseRollupService.subtractMatching(profileId, filter);
+        expenseTombstoneRepository.recordMatchingDeletes(profileId, filter.getCategory(), filter.getFromDate(), filter.getToDate(),
+                filter.getMinAmount(), filter.getMaxAmount());
+        int deleted = expenseRepository.deleteMatching(profileId, filter.getCategory(), filter.getFromDate(), filter.getToDate(),
+                filter.getMinAmount(), filter.getMaxAmount());
+        expenseCacheService.invalidateProfile(profileId);
+        log.info("Deleted {} expenses of profile {} matching {}", deleted, profileId, filter);
+        return deleted;
     }
 
     /**
@@ -72,43 +292,415 @@ public class ExpenseServiceImpl implements ExpenseService {
      * @return ExpenseDTO
      */
     @Override
+    @Transactional
     public ExpenseDTO saveExpenseDetails(ExpenseDTO expenseDTO) {
         ExpenseEntity newExpenseEntity = mapToExpenseEntity(expenseDTO);
-        newExpenseEntity.setExpenseId(UUID.randomUUID().toString());
+        newExpenseEntity.setExpenseId(UuidUtil.newTimeOrderedId());
+        newExpenseEntity.setProfileId(SecurityUtil.getLoggedInProfileId());
         newExpenseEntity = expenseRepository.save(newExpenseEntity);
+        expenseRollupService.add(List.of(newExpenseEntity));
         log.info("Printing the expense entity details {}", newExpenseEntity);
         return mapToExpenseDTO(newExpenseEntity);
     }
 
+    /**
+     * It will update the expense details to database.
+     * The loaded entity is modified in place, so the UPDATE only carries the changed columns and
+     * checks the version, a concurrent writer between the read and the flush fails with 409.
+     * @param expenseDTO (expense dto)
+     * @param expenseId (expense id)
+     * @param expectedVersion (version from If-Match, null to skip the check)
+     * @return ExpenseDTO
+     */
     @Override
-    public ExpenseDTO updateExpenseDetails(ExpenseDTO expenseDTO, String expenseId) {
+    @Transactional
+    public ExpenseDTO updateExpenseDetails(ExpenseDTO expenseDTO, String expenseId, Long expectedVersion) {
         ExpenseEntity existingExpense = getExpenseEntity(expenseId);
-        ExpenseEntity updatedExpenseEntity = mapToExpenseEntity(expenseDTO);
-        updatedExpenseEntity.setId(existingExpense.getId());
-        updatedExpenseEntity.setExpenseId(existingExpense.getExpenseId());
-        updatedExpenseEntity.setCreatedAt(existingExpense.getCreatedAt());
-        updatedExpenseEntity.setUpdatedAt(existingExpense.getUpdatedAt());
-        updatedExpenseEntity = expenseRepository.save(updatedExpenseEntity);
+        if (expectedVersion != null && !expectedVersion.equals(existingExpense.getVersion())) {
+            throw new PreconditionFailedException("Expense " + expenseId + " was modified, the current version is " + existingExpense.getVersion());
+        }
+        // Take the old values out of the rollup before they are overwritten
+        expenseRollupService.subtract(List.of(existingExpense));
+        expenseMapper.updateExpenseEntity(expenseDTO, existingExpense);
+        ExpenseEntity updatedExpenseEntity = expenseRepository.saveAndFlush(existingExpense);
+        expenseRollupService.add(List.of(updatedExpenseEntity));
+        expenseCacheService.invalidate(existingExpense.getProfileId(), expenseId);
         log.info("Printing the updated expense Entity details {}", updatedExpenseEntity);
         return mapToExpenseDTO(updatedExpenseEntity);
     }
 
+    /**
+     * It will update only the given fields of the expense with a single targeted UPDATE, without reading it.
+     * The UPDATE bumps version and updatedAt itself, as no entity listener runs for it.
+     * @param expenseDTO (fields to change, null fields are left unchanged)
+     * @param expenseId (expense id)
+     * @param expectedVersion (version from If-Match, null to skip the check)
+     */
+    @Override
+    @Transactional
+    public void patchExpenseDetails(ExpenseDTO expenseDTO, String expenseId, Long expectedVersion) {
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<ExpenseEntity> update = builder.createCriteriaUpdate(ExpenseEntity.class);
+        Root<ExpenseEntity> root = update.from(ExpenseEntity.class);
+        boolean changed = setIfPresent(update, root, "name", expenseDTO.getName())
+                | setIfPresent(update, root, "note", expenseDTO.getNote());
+        boolean movesRollup = setIfPresent(update, root, "category", expenseDTO.getCategory())
+                | setIfPresent(update, root, "date", expenseDTO.getDate())
+                | setIfPresent(update, root, "amount", expenseDTO.getAmount());
+        if (!changed && !movesRollup) {
+            throw new InvalidRequestException("The patch does not change any field");
+        }
+        update.set(root.<Long>get("version"), builder.sum(root.<Long>get("version"), 1L));
+        update.set(root.<Timestamp>get("updatedAt"), Timestamp.from(Instant.now()));
+        Predicate where = builder.and(builder.equal(root.get("expenseId"), expenseId), builder.equal(root.get("profileId"), profileId));
+        if (expectedVersion != null) {
+            where = builder.and(where, builder.equal(root.get("version"), expectedVersion));
+        }
+        update.where(where);
+
+        if (movesRollup) {
+            expenseRollupService.subtractStored(profileId, expenseId);
+        }
+        int updated = entityManager.createQuery(update).executeUpdate();
+        if (updated == 0) {
+            // Only the failure path reads the row, to tell a missing expense from a stale version.
+            // Throwing rolls back the rollup adjustment above.
+            getExpenseEntity(expenseId);
+            throw new PreconditionFailedException("Expense " + expenseId + " was modified, the expected version was " + expectedVersion);
+        }
+        if (movesRollup) {
+            expenseRollupService.addStored(profileId, expenseId);
+        }
+        expenseCacheService.invalidate(profileId, expenseId);
+        log.info("Patched the expense {} of profile {}", expenseId, profileId);
+    }
+
+    /**
+     * It will create, update and delete expenses in bulk using JDBC batching, in one transaction.
+     * The entries are pulled one by one, consecutive entries of the same operation are written together as soon
+     * as batch_size of them are read and are then released from the persistence context, so memory stays bounded.
+     * Any failure, a database error or an entry that cannot be read, rolls back the whole batch.
+     * @param entries (entries in request order, read lazily within the transaction)
+     * @return result of every entry
+     */
+    @Override
+    @Transactional
+    public List<ExpenseBatchItemDTO> processBatch(Iterator<ExpenseBatchEntryDTO> entries) {
+        List<ExpenseBatchItemDTO> results = new ArrayList<>();
+        List<ExpenseBatchEntryDTO> chunk = new ArrayList<>(batchSize);
+        while (entries.hasNext()) {
+            ExpenseBatchEntryDTO entry = entries.next();
+            if (!chunk.isEmpty() && !chunk.get(0).getOperation().equals(entry.getOperation())) {
+                results.addAll(writeChunk(chunk));
+                chunk.clear();
+            }
+            chunk.add(entry);
+            if (chunk.size() == batchSize) {
+                results.addAll(writeChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(writeChunk(chunk));
+        }
+        log.info("Processed expense batch with {} items", results.size());
+        return results;
+    }
+
+    /**
+     * It will insert the expenses in JDBC batches of batch_size within one transaction
+     * @param expenseDTOs (expenses to create)
+     * @return number of inserted expenses
+     */
+    @Override
+    @Transactional
+    public int saveExpensesInBatch(List<ExpenseDTO> expenseDTOs) {
+        for (int from = 0; from < expenseDTOs.size(); from += batchSize) {
+            insertExpenses(expenseDTOs.subList(from, Math.min(from + batchSize, expenseDTOs.size())));
+        }
+        return expenseDTOs.size();
+    }
+
+    /**
+     * It will aggregate the expenses per bucket with a GROUP BY query, where only the buckets leave the database.
+     * When the client opts in, category and month summaries over whole months are read from the maintained
+     * rollups instead, one row per bucket. The rollups keep no min and max and skip the expenses without
+     * an amount or a date, so they are not the default.
+     * @param groupBy (category, day, week or month)
+     * @param from (first date, inclusive, null for no lower bound)
+     * @param to (last date, inclusive, null for no upper bound)
+     * @param fromRollups (read the rollups instead of the expenses)
+     * @return totals, count, min, max and average per bucket
+     */
+    @Override
+    public List<ExpenseSummaryDTO> getExpenseSummary(ExpenseSummaryGroupBy groupBy, Date from, Date to, boolean fromRollups) {
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        Date fromDate = from == null ? MIN_DATE : from;
+        Date toDate = to == null ? MAX_DATE : to;
+        if (fromRollups) {
+            if (groupBy != ExpenseSummaryGroupBy.CATEGORY && groupBy != ExpenseSummaryGroupBy.MONTH) {
+                throw new InvalidRequestException("The rollups can only summarise by category or month, not by " + groupBy);
+            }
+            if (!coversWholeMonths(fromDate, toDate)) {
+                throw new InvalidRequestException("The rollups can only summarise from the first to the last day of a month");
+            }
+            List<ExpenseSummaryDTO> summary = expenseRollupService.getSummary(groupBy, fromDate,
+                    Date.valueOf(toDate.toLocalDate().withDayOfMonth(1)));
+            log.info("Summarised the expense rollups by {} into {} buckets", groupBy, summary.size());
+            return summary;
+        }
+        List<ExpenseTotalsView> totals = switch (groupBy) {
+            case CATEGORY -> expenseRepository.aggregateByCategory(profileId, fromDate, toDate);
+            case DAY -> expenseRepository.aggregateByDay(profileId, fromDate, toDate);
+            case WEEK -> expenseRepository.aggregateByWeek(profileId, fromDate, toDate);
+            case MONTH -> expenseRepository.aggregateByMonth(profileId, fromDate, toDate);
+        };
+        log.info("Aggregated expenses by {} into {} buckets", groupBy, totals.size());
+        return totals.stream().map(this::mapToExpenseSummaryDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * It will stream every expense to the output stream without holding them in memory.
+     * Rows come from a forward only JDBC cursor and are detached as soon as they are written,
+     * so the heap use does not depend on the number of rows.
+     * @param format (ndjson or csv)
+     * @param outputStream (response body)
+     * @return number of exported expenses
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportExpenses(ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long count = 0;
+        if (format == ExportFormat.CSV) {
+            writer.write("expenseId,name,note,category,date,amount,createdAt,updatedAt\n");
+        }
+        try (Stream<ExpenseEntity> expenses = expenseRepository.streamByProfileId(SecurityUtil.getLoggedInProfileId())) {
+            Iterator<ExpenseEntity> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                ExpenseEntity expenseEntity = iterator.next();
+                ExpenseDTO expenseDTO = mapToExpenseDTO(expenseEntity);
+                entityManager.detach(expenseEntity);
+                if (format == ExportFormat.CSV) {
+                    writeCsvLine(writer, expenseDTO);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(expenseDTO));
+                    writer.write('\n');
+                }
+                count++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} expenses as {}", count, format);
+        return count;
+    }
+
+    private void writeCsvLine(Writer writer, ExpenseDTO expenseDTO) throws IOException {
+        writer.write(CsvUtil.escape(expenseDTO.getExpenseId()));
+        writer.write(',');
+        writer.write(CsvUtil.escape(expenseDTO.getName()));
+        writer.write(',');
+        writer.write(CsvUtil.escape(expenseDTO.getNote()));
+        writer.write(',');
+        writer.write(CsvUtil.escape(expenseDTO.getCategory()));
+        writer.write(',');
+        writer.write(expenseDTO.getDate() == null ? "" : expenseDTO.getDate().toString());
+        writer.write(',');
+        writer.write(expenseDTO.getAmount() == null ? "" : expenseDTO.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(formatTimestamp(expenseDTO.getCreatedAt()));
+        writer.write(',');
+        writer.write(formatTimestamp(expenseDTO.getUpdatedAt()));
+        writer.write('\n');
+    }
+
+    private static String formatTimestamp(Timestamp timestamp) {
+        return timestamp == null ? "" : timestamp.toInstant().toString();
+    }
+
+    /**
+     * Write one chunk of entries, they all have the same operation
+     * @param chunk (entries, at most batch_size)
+     * @return result of every entry
+     */
+    private List<ExpenseBatchItemDTO> writeChunk(List<ExpenseBatchEntryDTO> chunk) {
+        return switch (chunk.get(0).getOperation()) {
+            case ExpenseBatchItemDTO.CREATE -> createChunk(chunk);
+            case ExpenseBatchItemDTO.UPDATE -> updateChunk(chunk);
+            default -> deleteChunk(chunk);
+        };
+    }
+
+    private List<ExpenseBatchItemDTO> createChunk(List<ExpenseBatchEntryDTO> chunk) {
+        List<ExpenseEntity> entities = insertExpenses(chunk.stream().map(ExpenseBatchEntryDTO::getExpense).collect(Collectors.toList()));
+        List<ExpenseBatchItemDTO> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(batchItem(ExpenseBatchItemDTO.CREATE, chunk.get(i).getIndex(), entities.get(i).getExpenseId(), HttpStatus.CREATED));
+        }
+        return results;
+    }
+
+    private List<ExpenseBatchItemDTO> updateChunk(List<ExpenseBatchEntryDTO> chunk) {
+        Map<String, ExpenseEntity> existing = findByExpenseIds(chunk.stream().map(ExpenseBatchEntryDTO::getExpenseId).collect(Collectors.toList()));
+        List<ExpenseEntity> updated = chunk.stream()
+                .map(entry -> existing.get(entry.getExpenseId()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        List<ExpenseBatchItemDTO> results = new ArrayList<>(chunk.size());
+        expenseRollupService.subtract(updated);
+        for (ExpenseBatchEntryDTO entry : chunk) {
+            String expenseId = entry.getExpenseId();
+            ExpenseEntity expenseEntity = existing.get(expenseId);
+            if (expenseEntity == null) {
+                results.add(notFoundBatchItem(ExpenseBatchItemDTO.UPDATE, entry.getIndex(), expenseId));
+                continue;
+            }
+            expenseMapper.updateExpenseEntity(entry.getExpense(), expenseEntity);
+            results.add(batchItem(ExpenseBatchItemDTO.UPDATE, entry.getIndex(), expenseId, HttpStatus.OK));
+        }
+        expenseRollupService.add(updated);
+        updated.forEach(expenseEntity -> expenseCacheService.invalidate(expenseEntity.getProfileId(), expenseEntity.getExpenseId()));
+        flushAndClear();
+        return results;
+    }
+
+    private List<ExpenseBatchItemDTO> deleteChunk(List<ExpenseBatchEntryDTO> chunk) {
+        Map<String, ExpenseEntity> existing = findByExpenseIds(chunk.stream().map(ExpenseBatchEntryDTO::getExpenseId).collect(Collectors.toList()));
+        List<ExpenseBatchItemDTO> results = new ArrayList<>(chunk.size());
+        for (ExpenseBatchEntryDTO entry : chunk) {
+            if (existing.containsKey(entry.getExpenseId())) {
+                results.add(batchItem(ExpenseBatchItemDTO.DELETE, entry.getIndex(), entry.getExpenseId(), HttpStatus.NO_CONTENT));
+            } else {
+                results.add(notFoundBatchItem(ExpenseBatchItemDTO.DELETE, entry.getIndex(), entry.getExpenseId()));
+            }
+        }
+        expenseRollupService.subtract(existing.values());
+        recordDeletes(SecurityUtil.getLoggedInProfileId(), existing.keySet());
+        expenseRepository.deleteAllInBatch(existing.values());
+        existing.values().forEach(expenseEntity -> expenseCacheService.invalidate(expenseEntity.getProfileId(), expenseEntity.getExpenseId()));
+        flushAndClear();
+        return results;
+    }
+
+    /**
+     * Insert one chunk of new expenses as a single JDBC batch and release them from the persistence context
+     * @param expenseDTOs (expenses to create, at most batch_size)
+     * @return inserted entities
+     */
+    private List<ExpenseEntity> insertExpenses(List<ExpenseDTO> expenseDTOs) {
+        Long profileId = SecurityUtil.getLoggedInProfileId();
+        List<ExpenseEntity> entities = new ArrayList<>(expenseDTOs.size());
+        for (ExpenseDTO expenseDTO : expenseDTOs) {
+            ExpenseEntity newExpenseEntity = mapToExpenseEntity(expenseDTO);
+            newExpenseEntity.setExpenseId(UuidUtil.newTimeOrderedId());
+            newExpenseEntity.setProfileId(profileId);
+            entities.add(newExpenseEntity);
+        }
+        expenseRepository.saveAll(entities);
+        expenseRollupService.add(entities);
+        flushAndClear();
+        return entities;
+    }
+
+    private Map<String, ExpenseEntity> findByExpenseIds(List<String> expenseIds) {
+        return expenseRepository.findByProfileIdAndExpenseIdIn(SecurityUtil.getLoggedInProfileId(), expenseIds).stream()
+                .collect(Collectors.toMap(ExpenseEntity::getExpenseId, Function.identity()));
+    }
+
+    /**
+     * Record the tombstones of the stored expenses, must run before they are deleted
+     * @param profileId (owner of the expenses)
+     * @param expenseIds (expense ids, malformed ones are skipped)
+     */
+    private void recordDeletes(Long profileId, Collection<String> expenseIds) {
+        List<byte[]> binaryIds = UuidUtil.toBytes(expenseIds);
+        if (!binaryIds.isEmpty()) {
+            expenseTombstoneRepository.recordDeletes(profileId, binaryIds);
+        }
+    }
+
+    private static <T> boolean setIfPresent(CriteriaUpdate<ExpenseEntity> update, Root<ExpenseEntity> root, String attribute, T value) {
+        if (value == null) {
+            return false;
+        }
+        update.set(root.<T>get(attribute), value);
+        return true;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private ExpenseBatchItemDTO batchItem(String operation, Integer index, String expenseId, HttpStatus status) {
+        return ExpenseBatchItemDTO.builder()
+                .operation(operation)
+                .index(index)
+                .expenseId(expenseId)
+                .statusCode(status.value())
+                .errors(List.of())
+                .build();
+    }
+
+    private ExpenseBatchItemDTO notFoundBatchItem(String operation, Integer index, String expenseId) {
+        ExpenseBatchItemDTO batchItem = batchItem(operation, index, expenseId, HttpStatus.NOT_FOUND);
+        batchItem.setErrors(List.of("Expense not found for the id " + expenseId));
+        return batchItem;
+    }
+
+    /**
+     * Mapper method for converting the aggregate projection to ExpenseSummaryDTO
+     * @param totals (aggregate of one bucket)
+     * @return expenseSummaryDTO
+     */
+    private ExpenseSummaryDTO mapToExpenseSummaryDTO(ExpenseTotalsView totals) {
+        return ExpenseSummaryDTO.builder()
+                .bucket(totals.bucket())
+                .count(totals.count())
+                .total(totals.total())
+                .min(totals.min())
+                .max(totals.max())
+                .average(totals.average() == null ? null : BigDecimal.valueOf(totals.average()).setScale(2, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    /**
+     * The rollups are monthly, they can only answer ranges from the first to the last day of a month
+     */
+    private static boolean coversWholeMonths(Date from, Date to) {
+        return from.toLocalDate().getDayOfMonth() == 1 && to.toLocalDate().plusDays(1).getDayOfMonth() == 1;
+    }
+
+    /**
+     * Resolve the requested page size against the configured default and cap
+     * @param size (requested page size)
+     * @return page size
+     */
+    private int resolvePageSize(Integer size) {
+        if (size == null || size < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
     /**
      * Mapper method to map values from Expense dto to Expense entity
      * @param expenseDTO (expense dto)
      * @return ExpenseEntity
      */
     private ExpenseEntity mapToExpenseEntity(ExpenseDTO expenseDTO) {
-        return modelMapper.map(expenseDTO, ExpenseEntity.class);
+        return expenseMapper.toExpenseEntity(expenseDTO);
     }
 
     /**
-     * Fetch the expense by expense id from database
+     * Fetch the expense of the logged in profile by expense id from database
      * @param expenseId (expense id)
      * @return expenseEntity
      */
     private ExpenseEntity getExpenseEntity(String expenseId) {
-        return expenseRepository.findByExpenseId(expenseId)
+        return expenseRepository.findByExpenseIdAndProfileId(expenseId, SecurityUtil.getLoggedInProfileId())
                 .orElseThrow(() -> new ResourceNotFoundException("Expense not found for the id " + expenseId));
     }
 
@@ -118,6 +710,6 @@ public class ExpenseServiceImpl implements ExpenseService {
      * @return ExpenseDTO
      */
     private ExpenseDTO mapToExpenseDTO(ExpenseEntity expenseEntity) {
-        return modelMapper.map(expenseEntity, ExpenseDTO.class);
+        return expenseMapper.toExpenseDTO(expenseEntity);
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.example.restapi.service.impl;
+
+import com.example.restapi.repository.ExpenseTombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+
+/**
+ * Removes the expense tombstones older than expense.sync.tombstone-retention-days
+ * @author boroboro01
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExpenseTombstonePurgeJob {
+
+    private final ExpenseTombstoneRepository expenseTombstoneRepository;
+
+    @Value("${expense.sync.tombstone-retention-days:90}")
+    private long tombstoneRetentionDays;
+
+    /**
+     * Tombstones older than the retention are removed, clients with an older cursor get 410 and sync in full
+     */
+    @Scheduled(fixedDelayString = "${expense.sync.tombstone-purge-interval-ms:3600000}")
+    public void purgeTombstones() {
+        int deleted = expenseTombstoneRepository.deleteOlderThan(new Timestamp(System.currentTimeMillis() - Duration.ofDays(tombstoneRetentionDays).toMillis()));
+        log.info("Purged {} expense tombstones", deleted);
+    }
+}
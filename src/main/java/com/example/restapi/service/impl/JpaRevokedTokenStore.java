@@ -0,0 +1,50 @@
+package com.example.restapi.service.impl;
+
+import com.example.restapi.entity.RevokedTokenEntity;
+import com.example.restapi.repository.RevokedTokenRepository;
+import com.example.restapi.service.RevokedTokenStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Revocation store backed by the tbl_revoked_tokens table, enabled with jwt.blacklist.persistent=true
+ * @author boroboro01
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jwt.blacklist.persistent", havingValue = "true")
+public class JpaRevokedTokenStore implements RevokedTokenStore {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Override
+    public void save(String fingerprint, Instant expiresAt) {
+        // Two sign-outs of the same token may race, the upsert makes the second one a no-op
+        revokedTokenRepository.upsertRevocation(fingerprint, Timestamp.from(expiresAt));
+    }
+
+    @Override
+    public Map<String, Instant> loadActive() {
+        purgeExpired();
+        return revokedTokenRepository.findByExpiresAtAfter(Timestamp.from(Instant.now())).stream()
+                .collect(Collectors.toMap(RevokedTokenEntity::getFingerprint, entity -> entity.getExpiresAt().toInstant()));
+    }
+
+    /**
+     * Rows of expired tokens are useless, remove them so the table stays as small as the live revocations
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(Timestamp.from(Instant.now()));
+        log.info("Purged {} expired token revocations", deleted);
+    }
+}
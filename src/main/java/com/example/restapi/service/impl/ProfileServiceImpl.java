@@ -3,23 +3,22 @@ package com.example.restapi.service.impl;
 import com.example.restapi.dto.ProfileDTO;
 import com.example.restapi.entity.ProfileEntity;
 import com.example.restapi.exceptions.ItemExistsException;
+import com.example.restapi.mapper.ProfileMapper;
 import com.example.restapi.repository.ProfileRepository;
 import com.example.restapi.service.ProfileService;
+import com.example.restapi.util.UuidUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ProfileServiceImpl implements ProfileService {
 
     private final ProfileRepository profileRepository;
-    private final ModelMapper modelMapper;
+    private final ProfileMapper profileMapper;
     private final PasswordEncoder encoder;
 
     /**
@@ -34,7 +33,7 @@ public class ProfileServiceImpl implements ProfileService {
         }
         profileDTO.setPassword(encoder.encode(profileDTO.getPassword()));
         ProfileEntity profileEntity = mapToProfileEntity(profileDTO);
-        profileEntity.setProfileId(UUID.randomUUID().toString());
+        profileEntity.setProfileId(UuidUtil.newTimeOrderedId());
         //TODO: check for the email exists
         profileEntity = profileRepository.save(profileEntity);
         log.info("Printing the profile entity details {}", profileEntity);
@@ -47,7 +46,7 @@ public class ProfileServiceImpl implements ProfileService {
      * @return profileDTO
      */
     private ProfileDTO mapToProfileDTO(ProfileEntity profileEntity) {
-        return modelMapper.map(profileEntity, ProfileDTO.class);
+        return profileMapper.toProfileDTO(profileEntity);
     }
 
     /**
@@ -56,6 +55,6 @@ public class ProfileServiceImpl implements ProfileService {
      * @return profileEntity
      */
     private ProfileEntity mapToProfileEntity(ProfileDTO profileDTO) {
-        return modelMapper.map(profileDTO, ProfileEntity.class);
+        return profileMapper.toProfileEntity(profileDTO);
     }
 }
@@ -0,0 +1,77 @@
+package com.example.restapi.service.impl;
+
+import com.example.restapi.service.ExpenseCacheInvalidationBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Expense cache invalidation bus over Redis pub/sub, enabled with expense.cache.invalidation-bus=redis
+ * on a build made with -PcacheBus=redis, other builds do not ship the Redis client.
+ * Every message is prefixed with the id of the sending node so a node does not evict its own keys twice.
+ * Pub/sub is fire and forget, a node that misses a message (restart, network split) still drops the
+ * entry after expense.cache.ttl-seconds.
+ * @author boroboro01
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+@ConditionalOnProperty(name = "expense.cache.invalidation-bus", havingValue = "redis")
+public class RedisExpenseCacheInvalidationBus implements ExpenseCacheInvalidationBus {
+
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${expense.cache.invalidation-channel:expense-cache-invalidations}")
+    private String channel;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        log.info("Publishing expense cache invalidations on the redis channel {} as node {}", channel, NODE_ID);
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Override
+    public void publish(String key) {
+        redisTemplate.convertAndSend(channel, NODE_ID + " " + key);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.indexOf(' ');
+            if (separator < 0 || body.substring(0, separator).equals(NODE_ID)) {
+                return;
+            }
+            listener.accept(body.substring(separator + 1));
+        }, new ChannelTopic(channel));
+    }
+}
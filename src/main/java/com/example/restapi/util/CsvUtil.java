@@ -0,0 +1,148 @@
+package com.example.restapi.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 helpers for the expense export and import
+ * @author boroboro01
+ */
+public final class CsvUtil {
+
+    private CsvUtil() {
+    }
+
+    /**
+     * It will quote the value when it contains a separator, a quote or a line break
+     * @param value
+     * @return csv field
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * It will read the next record, a quoted field may span several lines.
+     * The record is read one character at a time and never grows past maxRecordChars, an oversized record
+     * (for example an unterminated quote) is rejected and skipped up to the end of the current line, so the
+     * next call resumes with the following line.
+     * @param reader
+     * @param maxRecordChars (longest accepted record, line breaks included)
+     * @return fields of the record, or null at the end of the input
+     * @throws IllegalArgumentException when a quoted field is never closed or the record is too long
+     */
+    public static List<String> readRecord(BufferedReader reader, int maxRecordChars) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (c != -1) {
+            if (c == '\r') {
+                skipLineFeed(reader);
+                c = '\n';
+            }
+            if (!quoted && c == '\n') {
+                break;
+            }
+            if (++length > maxRecordChars) {
+                if (c != '\n') {
+                    skipLine(reader);
+                }
+                throw new IllegalArgumentException("Record is longer than " + maxRecordChars + " characters");
+            }
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                } else if (peek(reader) == '"') {
+                    reader.read();
+                    length++;
+                    field.append('"');
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Quoted field is not terminated");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * It will read the next line without ever holding more than maxLineChars, an oversized line is
+     * skipped up to its end so the next call resumes with the following line
+     * @param reader
+     * @param maxLineChars (longest accepted line)
+     * @return line without its terminator, or null at the end of the input
+     * @throws IllegalArgumentException when the line is too long
+     */
+    public static String readLine(BufferedReader reader, int maxLineChars) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        while (c != -1 && c != '\n') {
+            if (c == '\r') {
+                skipLineFeed(reader);
+                break;
+            }
+            if (line.length() == maxLineChars) {
+                skipLine(reader);
+                throw new IllegalArgumentException("Line is longer than " + maxLineChars + " characters");
+            }
+            line.append((char) c);
+            c = reader.read();
+        }
+        return line.toString();
+    }
+
+    private static int peek(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        int c = reader.read();
+        reader.reset();
+        return c;
+    }
+
+    private static void skipLineFeed(BufferedReader reader) throws IOException {
+        if (peek(reader) == '\n') {
+            reader.read();
+        }
+    }
+
+    private static void skipLine(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        while (c != -1 && c != '\n' && c != '\r') {
+            c = reader.read();
+        }
+        if (c == '\r') {
+            skipLineFeed(reader);
+        }
+    }
+}
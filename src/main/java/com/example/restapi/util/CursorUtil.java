@@ -0,0 +1,82 @@
+package com.example.restapi.util;
+
+import com.example.restapi.exceptions.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Helper for the opaque cursor tokens used by keyset pagination.
+ * A cursor is the url safe base64 form of the key values of the last row returned.
+ * @author boroboro01
+ */
+public final class CursorUtil {
+
+    private static final String SEPARATOR = ":";
+
+    private CursorUtil() {
+    }
+
+    /**
+     * It will encode the key values into an opaque cursor
+     * @param keys (key values of the last row)
+     * @return cursor
+     */
+    public static String encode(long... keys) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * It will convert the timestamp to epoch microseconds, the precision MySQL stores
+     * @param timestamp (timestamp, null is 0)
+     * @return epoch micros
+     */
+    public static long toMicros(Timestamp timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        return Math.floorDiv(timestamp.getTime(), 1000) * 1_000_000 + timestamp.getNanos() / 1000;
+    }
+
+    /**
+     * It will convert epoch microseconds back to a timestamp
+     * @param micros (epoch micros)
+     * @return timestamp
+     */
+    public static Timestamp fromMicros(long micros) {
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1_000_000) * 1000);
+        timestamp.setNanos((int) Math.floorMod(micros, 1_000_000) * 1000);
+        return timestamp;
+    }
+
+    /**
+     * It will decode the cursor back into its key values
+     * @param cursor (opaque cursor)
+     * @param expectedKeys (number of key values in the cursor)
+     * @return key values
+     */
+    public static long[] decode(String cursor, int expectedKeys) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] parts = decoded.split(SEPARATOR);
+            if (parts.length != expectedKeys) {
+                throw new InvalidRequestException("Invalid cursor " + cursor);
+            }
+            long[] keys = new long[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                keys[i] = Long.parseLong(parts[i]);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor " + cursor);
+        }
+    }
+}
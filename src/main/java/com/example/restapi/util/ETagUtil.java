@@ -0,0 +1,66 @@
+package com.example.restapi.util;
+
+import com.example.restapi.exceptions.PreconditionFailedException;
+
+import java.sql.Timestamp;
+
+/**
+ * Helper for the strong entity tags used by conditional requests.
+ * Single rows are tagged with their optimistic lock version, sets with their count and the
+ * microsecond precision latest updatedAt, which is what MySQL stores.
+ * @author boroboro01
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    /**
+     * It will build the entity tag of a single row
+     * @param version (optimistic lock version of the row)
+     * @return quoted entity tag
+     */
+    public static String forRow(Long version) {
+        return "\"v" + (version == null ? 0 : version) + "\"";
+    }
+
+    /**
+     * It will read the expected row version from an If-Match header.
+     * Only a single strong tag produced by forRow can match, anything else fails the precondition.
+     * @param ifMatch (If-Match header, may be null)
+     * @return expected version, null when the header is absent or *
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 3 && tag.startsWith("\"v") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(2, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Falls through to the failed precondition
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+    }
+
+    /**
+     * It will build the entity tag of a set of rows
+     * @param count (number of rows in the set)
+     * @param lastModified (latest updatedAt of the set, null for an empty set)
+     * @return quoted entity tag
+     */
+    public static String forSet(long count, Timestamp lastModified) {
+        return "\"" + Long.toHexString(count) + "-" + Long.toHexString(CursorUtil.toMicros(lastModified)) + "\"";
+    }
+
+    /**
+     * Last-Modified value in epoch millis, -1 when unknown so that If-Modified-Since is ignored
+     * @param timestamp (updatedAt)
+     * @return epoch millis
+     */
+    public static long lastModified(Timestamp timestamp) {
+        return timestamp == null ? -1 : timestamp.getTime();
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.restapi.util;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory ES256 keyring indexed by kid.
+ * Every node generates its own P-256 key pairs, so no secret is shared between nodes. The next key is
+ * published in the JWKS one rotation ahead of being used, which gives peers a full rotation interval to
+ * pick it up, and a retired key keeps verifying until the last token it signed has expired.
+ * Keys are parsed once into JCA objects, the request path only does a map lookup by kid.
+ * The private keys only live in this node's memory and are never persisted: a restart starts a new keyring,
+ * so every access token the node signed before fails verification, here at once and on the peers at their
+ * next JWKS refresh. Clients then all go through /refresh within one access token ttl, size the login path
+ * for that burst when restarting nodes, one at a time.
+ * @author boroboro01
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final String CURVE = "secp256r1";
+
+    private static final int COORDINATE_BYTES = 32;
+
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+
+    /**
+     * Key pair with its kid, the private key never leaves this class
+     */
+    private record SigningKey(String kid, PrivateKey privateKey, ECPublicKey publicKey, Instant createdAt) {
+    }
+
+    @Value("${jwt.keys.rotation-interval-ms:86400000}")
+    private long rotationIntervalMs = 86400000;
+
+    @Value("${jwt.access-token.ttl-seconds:900}")
+    private long accessTokenTtlSeconds = 900;
+
+    @Value("${jwt.keys.peer-jwks-urls:}")
+    private List<String> peerJwksUrls = List.of();
+
+    private final Map<String, SigningKey> localKeys = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, PublicKey>> peerKeys = new ConcurrentHashMap<>();
+
+    private volatile SigningKey currentKey;
+
+    private volatile SigningKey nextKey;
+
+    private ECParameterSpec curveParameters;
+
+    private KeyPairGenerator keyPairGenerator;
+
+    private KeyFactory keyFactory;
+
+    private RestClient restClient;
+
+    public JwtKeyRing() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec(CURVE));
+            this.curveParameters = parameters.getParameterSpec(ECParameterSpec.class);
+            this.keyPairGenerator = KeyPairGenerator.getInstance("EC");
+            this.keyPairGenerator.initialize(curveParameters);
+            this.keyFactory = KeyFactory.getInstance("EC");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("EC " + CURVE + " is not available", e);
+        }
+        this.currentKey = generate();
+        this.nextKey = generate();
+        localKeys.put(currentKey.kid(), currentKey);
+        localKeys.put(nextKey.kid(), nextKey);
+    }
+
+    /**
+     * It will sign the token with the current key and put its kid in the header
+     * @param builder (token with its claims set)
+     * @return compact signed token
+     */
+    public String sign(JwtBuilder builder) {
+        SigningKey signingKey = currentKey;
+        return builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
+                .compact();
+    }
+
+    /**
+     * It will find the verification key for the kid of a token, local keys first then the peers
+     * @param kid (key id from the token header)
+     * @return public key, or null when the kid is unknown or retired
+     */
+    public PublicKey getVerificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        SigningKey local = localKeys.get(kid);
+        if (local != null) {
+            return local.publicKey();
+        }
+        for (Map<String, PublicKey> keys : peerKeys.values()) {
+            PublicKey key = keys.get(kid);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * It will promote the pre-published next key to current, publish a new next key and drop the keys
+     * whose tokens have all expired
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.rotation-interval-ms:86400000}", initialDelayString = "${jwt.keys.rotation-interval-ms:86400000}")
+    public void rotate() {
+        SigningKey promoted = nextKey;
+        SigningKey upcoming = generate();
+        localKeys.put(upcoming.kid(), upcoming);
+        nextKey = upcoming;
+        currentKey = promoted;
+        // A key stops signing one interval after it was promoted, its tokens live accessTokenTtl longer
+        Instant retireBefore = Instant.now()
+                .minus(Duration.ofMillis(2 * rotationIntervalMs))
+                .minus(Duration.ofSeconds(accessTokenTtlSeconds))
+                .minus(CLOCK_SKEW);
+        localKeys.values().removeIf(key -> key != currentKey && key != nextKey && key.createdAt().isBefore(retireBefore));
+        log.info("Rotated the jwt signing key to {}, {} keys in the local keyring", promoted.kid(), localKeys.size());
+    }
+
+    /**
+     * It will fetch the JWKS of every configured peer node, so tokens they signed verify here too
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.peer-refresh-interval-ms:300000}")
+    public void refreshPeerKeys() {
+        if (peerJwksUrls.isEmpty()) {
+            return;
+        }
+        if (restClient == null) {
+            restClient = RestClient.create();
+        }
+        for (String url : peerJwksUrls) {
+            try {
+                Map<?, ?> jwks = restClient.get().uri(url).retrieve().body(Map.class);
+                Map<String, PublicKey> keys = parseJwks(jwks);
+                peerKeys.put(url, keys);
+                log.info("Loaded {} jwt verification keys from {}", keys.size(), url);
+            } catch (RuntimeException e) {
+                // Keep the last known keys of the peer, they are still valid until it rotates
+                log.warn("Unable to refresh the jwt verification keys from {}: {}", url, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * It will build the JWKS document of the local keys, including the next key that is not used yet
+     * @return jwks
+     */
+    public Map<String, Object> getJwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (SigningKey key : localKeys.values()) {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("kid", key.kid());
+            jwk.put("x", encodeCoordinate(key.publicKey().getW().getAffineX()));
+            jwk.put("y", encodeCoordinate(key.publicKey().getW().getAffineY()));
+            keys.add(jwk);
+        }
+        return Map.of("keys", keys);
+    }
+
+    private Map<String, PublicKey> parseJwks(Map<?, ?> jwks) {
+        Map<String, PublicKey> keys = new HashMap<>();
+        if (jwks == null || !(jwks.get("keys") instanceof List<?> entries)) {
+            return keys;
+        }
+        for (Object entry : entries) {
+            if (!(entry instanceof Map<?, ?> jwk) || !"EC".equals(jwk.get("kty")) || !"P-256".equals(jwk.get("crv"))
+                    || jwk.get("kid") == null || jwk.get("x") == null || jwk.get("y") == null) {
+                continue;
+            }
+            try {
+                ECPoint point = new ECPoint(decodeCoordinate(String.valueOf(jwk.get("x"))),
+                        decodeCoordinate(String.valueOf(jwk.get("y"))));
+                keys.put(String.valueOf(jwk.get("kid")), keyFactory.generatePublic(new ECPublicKeySpec(point, curveParameters)));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping the invalid jwk {}: {}", jwk.get("kid"), e.getMessage());
+            }
+        }
+        return keys;
+    }
+
+    private SigningKey generate() {
+        KeyPair keyPair;
+        synchronized (keyPairGenerator) {
+            keyPair = keyPairGenerator.generateKeyPair();
+        }
+        return new SigningKey(UuidUtil.newTimeOrderedId(), keyPair.getPrivate(), (ECPublicKey) keyPair.getPublic(), Instant.now());
+    }
+
+    private static String encodeCoordinate(BigInteger coordinate) {
+        // Fixed length unsigned big-endian, as required by RFC 7518
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[COORDINATE_BYTES];
+        int length = Math.min(bytes.length, COORDINATE_BYTES);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_BYTES - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static BigInteger decodeCoordinate(String value) {
+        byte[] bytes = Base64.getUrlDecoder().decode(value);
+        if (bytes.length != COORDINATE_BYTES) {
+            throw new IllegalArgumentException("Invalid coordinate length " + bytes.length);
+        }
+        return new BigInteger(1, bytes);
+    }
+}
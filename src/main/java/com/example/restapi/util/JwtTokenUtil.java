@@ -1,25 +1,109 @@
 package com.example.restapi.util;
 
+import com.example.restapi.service.ProfileUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class JwtTokenUtil {
 
-    private static final long JWT_TOKEN_VALIDITY = 5 * 60 * 60;
+    private static final String CLAIM_UID = "uid";
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final String CLAIM_PROFILE_ID = "profileId";
+
+    private static final String CLAIM_AUTHORITIES = "authorities";
+
+    private final JwtKeyRing jwtKeyRing;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.access-token.ttl-seconds:900}")
+    private long accessTokenTtlSeconds = 900;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize = 10000;
+
+    @Value("${jwt.verified-cache.ttl-ms:1000}")
+    private long verifiedCacheTtlMs = 1000;
+
+    private JwtParser jwtParser;
+
+    /**
+     * Claims of recently verified tokens keyed by the full token string, so only the exact same
+     * signed token can hit. Kept short lived, it only absorbs bursts of requests with the same token.
+     */
+    private Cache<String, Claims> verifiedTokens;
+
+    private Timer verificationTimer;
+
+    private Counter verifiedCacheHits;
+
+    /**
+     * Build the (thread safe) parser once instead of on every request.
+     * The verification key is picked from the keyring by the kid header of each token, only ES256 is accepted.
+     */
+    @PostConstruct
+    public void init() {
+        this.jwtParser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                if (!SignatureAlgorithm.ES256.getValue().equals(header.getAlgorithm())) {
+                    throw new SignatureException("Unsupported jwt algorithm " + header.getAlgorithm());
+                }
+                Key key = jwtKeyRing.getVerificationKey(header.getKeyId());
+                if (key == null) {
+                    throw new SignatureException("Unknown jwt key id " + header.getKeyId());
+                }
+                return key;
+            }
+        }).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(verifiedCacheTtlMs))
+                .build();
+        this.verificationTimer = Timer.builder("jwt.verification")
+                .description("Signature verification of access tokens that missed the verified token cache")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.verifiedCacheHits = Counter.builder("jwt.verification.cache.hits")
+                .description("Access tokens served from the verified token cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lifetime of the access tokens, clients use the refresh token to get a new one
+     * @return seconds
+     */
+    public long getAccessTokenTtlSeconds() {
+        return accessTokenTtlSeconds;
+    }
 
     /**
      * Method to generate Jwt token by username
@@ -28,54 +112,85 @@ public class JwtTokenUtil {
      */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        return Jwts.builder()
+        if (userDetails instanceof ProfileUserDetails profile) {
+            claims.put(CLAIM_UID, profile.getId());
+            claims.put(CLAIM_PROFILE_ID, profile.getProfileId());
+            claims.put(CLAIM_AUTHORITIES, profile.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList()));
+        }
+        return jwtKeyRing.sign(Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY * 1000))
-                .signWith(SignatureAlgorithm.HS256, secret)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtlSeconds * 1000)));
     }
 
     /**
-     * Method to get user name from token
+     * Method to read the claims of the token, verifying its signature unless the same token was
+     * verified within the last verified-cache ttl. Callers should reuse the returned claims.
      * @param jwtToken
-     * @return user name
+     * @return claims
+     * @throws io.jsonwebtoken.ExpiredJwtException when the token has expired
      */
-    public String getUsernameFromToken(String jwtToken) {
-        return getClaimFromToken(jwtToken, Claims::getSubject);
+    public Claims parseToken(String jwtToken) {
+        Claims cached = verifiedTokens.getIfPresent(jwtToken);
+        if (cached != null && !isTokenExpired(cached)) {
+            verifiedCacheHits.increment();
+            return cached;
+        }
+        Claims claims = verificationTimer.record(() -> verifyToken(jwtToken));
+        verifiedTokens.put(jwtToken, claims);
+        return claims;
     }
 
     /**
-     * Method to get claim from token
-     * @param token
-     * @param claimResolver
+     * Method to verify the signature of the token and read its claims, always doing the signature check
+     * @param jwtToken
      * @return claims
-     * @param <T>
+     * @throws io.jsonwebtoken.ExpiredJwtException when the token has expired
      */
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = Jwts.parserBuilder().setSigningKey(secret).build().parseClaimsJws(token).getBody();
-        return claimResolver.apply(claims);
+    public Claims verifyToken(String jwtToken) {
+        return jwtParser.parseClaimsJws(jwtToken).getBody();
     }
 
     /**
-     * Method to validate token is available
-     * @param jwtToken
+     * Method to build the principal straight from verified claims, without a database lookup
+     * @param claims
+     * @return principal, or null when the token was issued without the profile claims
+     */
+    public ProfileUserDetails getPrincipalFromClaims(Claims claims) {
+        Long id = claims.get(CLAIM_UID, Long.class);
+        String profileId = claims.get(CLAIM_PROFILE_ID, String.class);
+        if (id == null || profileId == null || claims.getSubject() == null) {
+            return null;
+        }
+        List<?> authorities = claims.get(CLAIM_AUTHORITIES, List.class);
+        List<GrantedAuthority> grantedAuthorities = authorities == null ? List.of() : authorities.stream()
+                .map(authority -> new SimpleGrantedAuthority(String.valueOf(authority)))
+                .collect(Collectors.toList());
+        return new ProfileUserDetails(id, profileId, claims.getSubject(), "", grantedAuthorities);
+    }
+
+    /**
+     * Method to validate already parsed claims against the user
+     * @param claims
      * @param userDetails
      * @return validation result
      */
-    public boolean validateToken(String jwtToken, UserDetails userDetails) {
-        final String email = getUsernameFromToken(jwtToken);
-        return email.equals(userDetails.getUsername()) && !isTokenExpired(jwtToken);
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String email = claims.getSubject();
+        return email != null && email.equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
     /**
      * Method to validate token is not expired
-     * @param jwtToken
+     * @param claims
      * @return validation result
      */
-    private boolean isTokenExpired(String jwtToken) {
-        final Date expiration = getClaimFromToken(jwtToken, Claims::getExpiration);
-        return expiration.before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 }
@@ -0,0 +1,147 @@
+package com.example.restapi.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statements executed by the current thread between begin() and end(), usually one http request.
+ * Fed by QueryStatsInspector from inside Hibernate, the SQL is already a shape (binds are ?), IN lists
+ * are collapsed so the same query with a different number of ids counts as one shape.
+ * Not thread safe, an instance only ever lives on the thread that began it, statements run by other
+ * threads (async request processing, @Async, @Scheduled) are not collected.
+ * @author boroboro01
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)+\\)");
+
+    /**
+     * Long imports prepare many statements of few shapes, the cap only guards against pathological cases
+     */
+    private static final int MAX_SHAPES = 200;
+
+    private final Map<String, Integer> shapeCounts = new LinkedHashMap<>();
+
+    private int statementCount;
+
+    private long totalNanos;
+
+    private long slowestNanos;
+
+    private String slowestShape;
+
+    private int slowestBindCount;
+
+    private String lastShape;
+
+    private int lastBindCount;
+
+    private long executionStartedAt;
+
+    /**
+     * It will start collecting for the current thread, replacing anything left over
+     * @return stats
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stats of the current thread
+     * @return stats, or null when nothing is being collected
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * It will stop collecting for the current thread
+     * @return stats collected since begin(), or null
+     */
+    public static QueryStats end() {
+        QueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    /**
+     * It will count a prepared statement, called by the statement inspector
+     * @param sql (sql with ? binds)
+     */
+    public void statementPrepared(String sql) {
+        statementCount++;
+        lastBindCount = bindCount(sql);
+        lastShape = IN_LIST.matcher(sql).replaceAll("(?...)");
+        if (shapeCounts.size() < MAX_SHAPES || shapeCounts.containsKey(lastShape)) {
+            shapeCounts.merge(lastShape, 1, Integer::sum);
+        }
+    }
+
+    public void executionStarted() {
+        executionStartedAt = System.nanoTime();
+    }
+
+    /**
+     * It will add the time since executionStarted() to the last prepared statement
+     */
+    public void executionEnded() {
+        if (executionStartedAt == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - executionStartedAt;
+        executionStartedAt = 0;
+        totalNanos += elapsed;
+        if (elapsed > slowestNanos) {
+            slowestNanos = elapsed;
+            slowestShape = lastShape;
+            slowestBindCount = lastBindCount;
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getTotalMillis() {
+        return totalNanos / 1_000_000;
+    }
+
+    public long getSlowestMillis() {
+        return slowestNanos / 1_000_000;
+    }
+
+    public String getSlowestShape() {
+        return slowestShape;
+    }
+
+    public int getSlowestBindCount() {
+        return slowestBindCount;
+    }
+
+    /**
+     * The shape executed most often, a high count for a select by id is the N+1 signature
+     * @return entry of shape to count, or null when nothing ran
+     */
+    public Map.Entry<String, Integer> getMostRepeatedShape() {
+        return shapeCounts.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    private static int bindCount(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.restapi.util;
+
+import com.example.restapi.service.ProfileUserDetails;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Helper to resolve the profile of the current request from the security context
+ * @author boroboro01
+ */
+public final class SecurityUtil {
+
+    private SecurityUtil() {
+    }
+
+    /**
+     * It will return the authenticated profile
+     * @return profileUserDetails
+     */
+    public static ProfileUserDetails getLoggedInProfile() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof ProfileUserDetails profile)) {
+            throw new AuthenticationCredentialsNotFoundException("No authenticated profile for this request");
+        }
+        return profile;
+    }
+
+    /**
+     * It will return the database id of the authenticated profile
+     * @return profile id
+     */
+    public static Long getLoggedInProfileId() {
+        return getLoggedInProfile().getId();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.restapi.util;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Helper for the public ids of expenses and profiles.
+ * New ids are UUIDv7, time ordered so that inserts append to the unique index instead of splitting
+ * random pages, and are stored as BINARY(16). The external form stays the canonical 36 character string.
+ * @author boroboro01
+ */
+public final class UuidUtil {
+
+    private static final int CANONICAL_LENGTH = 36;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private UuidUtil() {
+    }
+
+    /**
+     * It will generate a new UUIDv7: 48 bits of epoch millis, the version, then 74 random bits
+     * @return canonical uuid string
+     */
+    public static String newTimeOrderedId() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        long millis = System.currentTimeMillis();
+        for (int i = 0; i < 6; i++) {
+            bytes[i] = (byte) (millis >>> (40 - 8 * i));
+        }
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x70);
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80);
+        return fromBytes(bytes);
+    }
+
+    /**
+     * It will convert the canonical uuid string to its 16 bytes, in the same order as MySQL UUID_TO_BIN
+     * @param uuid (canonical uuid string)
+     * @return bytes, null when the string is not a canonical uuid so that it matches no row
+     */
+    public static byte[] toBytes(String uuid) {
+        if (uuid == null || uuid.length() != CANONICAL_LENGTH) {
+            return null;
+        }
+        try {
+            UUID parsed = UUID.fromString(uuid);
+            return ByteBuffer.allocate(16)
+                    .putLong(parsed.getMostSignificantBits())
+                    .putLong(parsed.getLeastSignificantBits())
+                    .array();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * It will convert the uuid strings to bytes, dropping the ones that are not canonical uuids
+     * @param uuids (canonical uuid strings)
+     * @return list of bytes
+     */
+    public static List<byte[]> toBytes(Collection<String> uuids) {
+        return uuids.stream().map(UuidUtil::toBytes).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * It will convert 16 bytes back to the canonical uuid string
+     * @param bytes (uuid bytes)
+     * @return canonical uuid string
+     */
+    public static String fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
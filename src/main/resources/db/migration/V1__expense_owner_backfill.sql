@@ -0,0 +1,12 @@
+-- Backfills tbl_expenses.profile_id for the rows created before expenses were scoped to their owner.
+-- Every query filters on profile_id, so those rows are unreachable through the API until they have one.
+-- The old rows carry no trace of their creator: set @owner_email to the profile that should receive them,
+-- or delete them instead. Run once, with the application stopped, then POST /expenses/rollups/rebuild
+-- as that profile so its rollups include the adopted rows.
+
+SET @owner_email = 'owner@example.com';
+SET @owner_id = (SELECT id FROM tbl_profile WHERE email = @owner_email);
+
+-- Fails on the NOT NULL below rather than silently keeping orphans when the email does not exist
+UPDATE tbl_expenses SET profile_id = @owner_id WHERE profile_id IS NULL;
+ALTER TABLE tbl_expenses MODIFY profile_id BIGINT NOT NULL;
@@ -0,0 +1,23 @@
+-- Converts the public ids from VARCHAR uuid strings to BINARY(16), same bytes as UUID_TO_BIN(id).
+-- Run once, with the application stopped, before deploying the BINARY(16) mapping:
+-- spring.jpa.hibernate.ddl-auto=update does not change the type of existing columns.
+-- Requires MySQL 8.0 for UUID_TO_BIN. Existing ids keep their value, only new ids are UUIDv7.
+
+ALTER TABLE tbl_expenses ADD COLUMN expense_id_bin BINARY(16) NULL;
+UPDATE tbl_expenses SET expense_id_bin = UUID_TO_BIN(expense_id) WHERE expense_id IS NOT NULL;
+-- Dropping the column also drops its generated unique index
+ALTER TABLE tbl_expenses DROP COLUMN expense_id;
+ALTER TABLE tbl_expenses RENAME COLUMN expense_id_bin TO expense_id;
+ALTER TABLE tbl_expenses ADD CONSTRAINT uk_expenses_expense_id UNIQUE (expense_id);
+
+ALTER TABLE tbl_expense_tombstones ADD COLUMN expense_id_bin BINARY(16) NULL;
+UPDATE tbl_expense_tombstones SET expense_id_bin = UUID_TO_BIN(expense_id);
+ALTER TABLE tbl_expense_tombstones DROP COLUMN expense_id;
+ALTER TABLE tbl_expense_tombstones RENAME COLUMN expense_id_bin TO expense_id;
+ALTER TABLE tbl_expense_tombstones MODIFY expense_id BINARY(16) NOT NULL;
+
+ALTER TABLE tbl_profile ADD COLUMN profile_id_bin BINARY(16) NULL;
+UPDATE tbl_profile SET profile_id_bin = UUID_TO_BIN(profile_id) WHERE profile_id IS NOT NULL;
+ALTER TABLE tbl_profile DROP COLUMN profile_id;
+ALTER TABLE tbl_profile RENAME COLUMN profile_id_bin TO profile_id;
+ALTER TABLE tbl_profile ADD CONSTRAINT uk_profile_profile_id UNIQUE (profile_id);
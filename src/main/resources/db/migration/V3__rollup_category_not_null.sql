@@ -0,0 +1,13 @@
+-- Makes tbl_expense_rollups.category NOT NULL, expenses without a category are bucketed under ''.
+-- The unique key (profile_id, category, bucket_month) treats NULLs as distinct, so every upsert for a
+-- NULL category inserted a new row. Their sum is still the right total, merge them into one '' bucket.
+-- Run once, with the application stopped: spring.jpa.hibernate.ddl-auto=update does not add NOT NULL
+-- to an existing column. POST /expenses/rollups/rebuild is an alternative per profile.
+
+INSERT INTO tbl_expense_rollups (profile_id, category, bucket_month, total_amount, expense_count, updated_at)
+SELECT profile_id, '', bucket_month, SUM(total_amount), SUM(expense_count), NOW()
+FROM tbl_expense_rollups WHERE category IS NULL GROUP BY profile_id, bucket_month
+ON DUPLICATE KEY UPDATE total_amount = tbl_expense_rollups.total_amount + VALUES(total_amount),
+    expense_count = tbl_expense_rollups.expense_count + VALUES(expense_count), updated_at = NOW();
+DELETE FROM tbl_expense_rollups WHERE category IS NULL;
+ALTER TABLE tbl_expense_rollups MODIFY category VARCHAR(255) NOT NULL;
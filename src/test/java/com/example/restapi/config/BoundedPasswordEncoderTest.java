@@ -0,0 +1,82 @@
+package com.example.restapi.config;
+
+import com.example.restapi.exceptions.GlobalExceptionHandler;
+import com.example.restapi.exceptions.ServiceUnavailableException;
+import com.example.restapi.io.ErrorObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class BoundedPasswordEncoderTest {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	/**
+	 * Hashes block until released, so the test decides when the pool and the queue are full
+	 */
+	private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "hash:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	};
+
+	private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blockingEncoder, 1, 1, 10_000);
+
+	@AfterEach
+	void close() {
+		release.countDown();
+		encoder.close();
+	}
+
+	@Test
+	void rejectsWith503AndRetryAfterOnceThePoolAndTheQueueAreFull() throws Exception {
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+		waitForQueueDepth(1);
+
+		ServiceUnavailableException rejected = catchThrowableOfType(() -> encoder.encode("rejected"), ServiceUnavailableException.class);
+
+		assertThat(rejected).isNotNull();
+		ResponseEntity<ErrorObject> response = new GlobalExceptionHandler().handleServiceUnavailableException(rejected);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(response.getBody().getStatusCode()).isEqualTo(503);
+
+		release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:running");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:queued");
+		assertThat(encoder.getQueueDepth()).isZero();
+	}
+
+	private void waitForQueueDepth(int depth) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (encoder.getQueueDepth() < depth && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(encoder.getQueueDepth()).isEqualTo(depth);
+	}
+}
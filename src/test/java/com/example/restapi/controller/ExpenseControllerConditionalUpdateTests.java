@@ -0,0 +1,133 @@
+package com.example.restapi.controller;
+
+import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.entity.ExpenseEntity;
+import com.example.restapi.mapper.ExpenseMapper;
+import com.example.restapi.support.ExpenseTestFixture;
+import com.example.restapi.support.ExpenseTestFixture.TestProfile;
+import com.example.restapi.util.ETagUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PUT and PATCH of a single expense: a stale If-Match fails with 412 before anything is written, a writer
+ * committing between the read and the flush of a PUT fails with 409, and a PATCH of the category moves the
+ * expense to its new rollup bucket.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(ExpenseTestFixture.class)
+class ExpenseControllerConditionalUpdateTests {
+
+	private static final String UPDATE_BODY = "{\"name\":\"updated\",\"category\":\"conditional\",\"date\":\"2024-01-01\",\"amount\":2}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExpenseTestFixture fixture;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@SpyBean
+	private ExpenseMapper expenseMapper;
+
+	private TestProfile profile;
+
+	private ExpenseDTO expense;
+
+	@BeforeEach
+	void createProfileWithExpense() {
+		profile = fixture.createProfile("conditional");
+		expense = fixture.createExpense(profile, "original", "conditional");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		fixture.cleanUp();
+	}
+
+	@Test
+	void putWithStaleIfMatchFailsWithPreconditionFailed() throws Exception {
+		mockMvc.perform(patch("/expenses/" + expense.getExpenseId()).header(HttpHeaders.AUTHORIZATION, profile.bearer())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"note\":\"bumps the version\"}"))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(put("/expenses/" + expense.getExpenseId()).header(HttpHeaders.AUTHORIZATION, profile.bearer())
+						.header(HttpHeaders.IF_MATCH, ETagUtil.forRow(expense.getVersion()))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(UPDATE_BODY))
+				.andExpect(status().isPreconditionFailed());
+
+		mockMvc.perform(get("/expenses/" + expense.getExpenseId()).header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("original"));
+	}
+
+	@Test
+	void putRacingWithAnotherWriterFailsWithConflict() throws Exception {
+		// The other writer commits after the PUT has read the row and before it flushes its UPDATE
+		doAnswer(invocation -> {
+			bumpVersionInAnotherTransaction(expense.getExpenseId());
+			return invocation.callRealMethod();
+		}).when(expenseMapper).updateExpenseEntity(any(ExpenseDTO.class), any(ExpenseEntity.class));
+
+		mockMvc.perform(put("/expenses/" + expense.getExpenseId()).header(HttpHeaders.AUTHORIZATION, profile.bearer())
+						.header(HttpHeaders.IF_MATCH, ETagUtil.forRow(expense.getVersion()))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(UPDATE_BODY))
+				.andExpect(status().isConflict());
+	}
+
+	@Test
+	void patchOfTheCategoryMovesTheRollup() throws Exception {
+		mockMvc.perform(patch("/expenses/" + expense.getExpenseId()).header(HttpHeaders.AUTHORIZATION, profile.bearer())
+						.header(HttpHeaders.IF_MATCH, ETagUtil.forRow(expense.getVersion()))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"category\":\"moved\"}"))
+				.andExpect(status().isNoContent())
+				.andExpect(header().string(HttpHeaders.ETAG, ETagUtil.forRow(expense.getVersion() + 1)));
+
+		mockMvc.perform(get("/expenses/rollups").param("from", "2024-01").param("to", "2024-01")
+						.header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].category").value("moved"))
+				.andExpect(jsonPath("$[0].count").value(1));
+	}
+
+	private void bumpVersionInAnotherTransaction(String expenseId) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transaction.executeWithoutResult(status -> jdbcTemplate.update(
+				"UPDATE tbl_expenses SET version = version + 1 WHERE expense_id = UUID_TO_BIN(?)", expenseId));
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.restapi.controller;
+
+import com.example.restapi.exceptions.QueryBudgetExceededException;
+import com.example.restapi.support.ExpenseTestFixture;
+import com.example.restapi.support.ExpenseTestFixture.TestProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the statement count of GET /expenses: the principal comes from the token claims and the page is one
+ * keyset select, so a change that adds a lookup or an N+1 fails here with jpa.query-stats.strict=true.
+ * The budget is set with jpa.query-stats.max-statements, the setup goes through the services and is not counted.
+ */
+@SpringBootTest(properties = {"jpa.query-stats.strict=true", "jpa.query-stats.slow-query-ms=60000",
+		"jpa.query-stats.max-statements=" + ExpenseControllerQueryBudgetTests.GET_EXPENSES_BUDGET})
+@AutoConfigureMockMvc
+@Import(ExpenseTestFixture.class)
+class ExpenseControllerQueryBudgetTests {
+
+	static final int GET_EXPENSES_BUDGET = 1;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExpenseTestFixture fixture;
+
+	private TestProfile profile;
+
+	@BeforeEach
+	void createProfileWithExpenses() {
+		profile = fixture.createProfile("budget");
+		for (int i = 0; i < 3; i++) {
+			fixture.createExpense(profile, "budget " + i, "budget");
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		fixture.cleanUp();
+	}
+
+	@Test
+	void getExpensesStaysWithinItsStatementBudget() throws Exception {
+		mockMvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+				.andExpect(status().isOk());
+	}
+
+	/**
+	 * Same request one statement under the budget, it runs in its own context with the lowered property
+	 */
+	@Nested
+	@TestPropertySource(properties = "jpa.query-stats.max-statements=" + (GET_EXPENSES_BUDGET - 1))
+	class LoweredBudget {
+
+		@Autowired
+		private MockMvc loweredBudgetMockMvc;
+
+		@Test
+		void getExpensesFailsWhenTheBudgetIsLowered() {
+			assertThatThrownBy(() -> loweredBudgetMockMvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, profile.bearer())))
+					.isInstanceOf(QueryBudgetExceededException.class)
+					.hasMessageContaining("more than " + (GET_EXPENSES_BUDGET - 1) + " statements");
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.restapi.controller;
+
+import com.example.restapi.support.ExpenseTestFixture;
+import com.example.restapi.support.ExpenseTestFixture.TestProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Concurrent GET /expenses with spring.threads.virtual.enabled, the requests run on the virtual threads of the
+ * application task executor. Every user owns one expense named after its email, a response listing another
+ * name would mean a security context leaked between requests.
+ */
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureMockMvc
+@Import(ExpenseTestFixture.class)
+@EnabledForJreRange(min = JRE.JAVA_21)
+class ExpenseControllerVirtualThreadTests {
+
+	private static final int USERS = 20;
+	private static final int REQUESTS = 2000;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	@Qualifier("applicationTaskExecutor")
+	private AsyncTaskExecutor executor;
+
+	@Autowired
+	private ExpenseTestFixture fixture;
+
+	@AfterEach
+	void cleanUp() {
+		fixture.cleanUp();
+	}
+
+	@Test
+	void concurrentRequestsOnlySeeTheirOwnExpenses() throws Exception {
+		TestProfile[] profiles = new TestProfile[USERS];
+		for (int i = 0; i < USERS; i++) {
+			profiles[i] = fixture.createProfile("virtual");
+			fixture.createExpense(profiles[i], profiles[i].email(), "virtual");
+		}
+
+		List<Future<List<String>>> responses = new ArrayList<>(REQUESTS);
+		for (int n = 0; n < REQUESTS; n++) {
+			TestProfile profile = profiles[n % USERS];
+			responses.add(executor.submit(() -> expenseNames(profile)));
+		}
+
+		for (int n = 0; n < REQUESTS; n++) {
+			assertThat(responses.get(n).get()).as("expenses returned to %s", profiles[n % USERS].email())
+					.containsExactly(profiles[n % USERS].email());
+		}
+	}
+
+	private List<String> expenseNames(TestProfile profile) throws Exception {
+		String page = mockMvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, profile.bearer()))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		List<String> names = new ArrayList<>();
+		for (JsonNode expense : objectMapper.readTree(page).get("expenses")) {
+			names.add(expense.get("name").asText());
+		}
+		return names;
+	}
+}
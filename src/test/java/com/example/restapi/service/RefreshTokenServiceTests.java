@@ -0,0 +1,89 @@
+package com.example.restapi.service;
+
+import com.example.restapi.exceptions.InvalidRefreshTokenException;
+import com.example.restapi.support.ExpenseTestFixture;
+import com.example.restapi.support.ExpenseTestFixture.TestProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Rotation of the refresh tokens against the database, without a surrounding test transaction so that
+ * every call commits or rolls back on its own like it does behind POST /refresh.
+ */
+@SpringBootTest
+@Import(ExpenseTestFixture.class)
+class RefreshTokenServiceTests {
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private ExpenseTestFixture fixture;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestProfile profile;
+
+	@BeforeEach
+	void createProfile() {
+		profile = fixture.createProfile("refresh");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		fixture.cleanUp();
+	}
+
+	@Test
+	void rotationIssuesANewTokenForTheSameProfile() {
+		String issued = refreshTokenService.issue(profile.user());
+
+		RefreshTokenService.Rotation rotation = refreshTokenService.rotate(issued);
+
+		assertThat(rotation.refreshToken()).isNotEqualTo(issued);
+		assertThat(rotation.principal().getId()).isEqualTo(profile.user().getId());
+		assertThat(rotation.principal().getUsername()).isEqualTo(profile.email());
+	}
+
+	@Test
+	void presentingARotatedTokenRevokesTheWholeFamily() {
+		String issued = refreshTokenService.issue(profile.user());
+		String rotated = refreshTokenService.rotate(issued).refreshToken();
+
+		assertThatThrownBy(() -> refreshTokenService.rotate(issued))
+				.isInstanceOf(InvalidRefreshTokenException.class);
+
+		// The legitimate holder of the latest token is logged out too
+		assertThatThrownBy(() -> refreshTokenService.rotate(rotated))
+				.isInstanceOf(InvalidRefreshTokenException.class);
+	}
+
+	@Test
+	void familyRevocationIsCommittedAlthoughRotateThrows() {
+		String issued = refreshTokenService.issue(profile.user());
+		refreshTokenService.rotate(issued);
+		assertThat(activeTokens()).isEqualTo(1);
+
+		assertThatThrownBy(() -> refreshTokenService.rotate(issued))
+				.isInstanceOf(InvalidRefreshTokenException.class);
+
+		// noRollbackFor = InvalidRefreshTokenException keeps the revocation made before the throw
+		assertThat(activeTokens()).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tbl_refresh_tokens WHERE profile_db_id = ?",
+				Integer.class, profile.user().getId())).isEqualTo(2);
+	}
+
+	private int activeTokens() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tbl_refresh_tokens WHERE profile_db_id = ? AND revoked_at IS NULL",
+				Integer.class, profile.user().getId());
+	}
+}
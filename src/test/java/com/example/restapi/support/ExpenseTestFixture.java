@@ -0,0 +1,134 @@
+package com.example.restapi.support;
+
+import com.example.restapi.dto.ExpenseDTO;
+import com.example.restapi.dto.ProfileDTO;
+import com.example.restapi.service.CustomUserDetailsService;
+import com.example.restapi.service.ExpenseService;
+import com.example.restapi.service.ProfileService;
+import com.example.restapi.service.ProfileUserDetails;
+import com.example.restapi.util.JwtTokenUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Creates profiles, their access tokens and expenses through the services, outside of any request, so the
+ * setup is neither counted by the query budget nor slowed down by the login endpoints. Everything created is
+ * deleted by cleanUp, call it from an @AfterEach of the test class that imports the fixture.
+ */
+@TestComponent
+public class ExpenseTestFixture {
+
+	private static final List<String> CLEANUP = List.of(
+			"DELETE FROM tbl_expenses WHERE profile_id IN (:ids)",
+			"DELETE FROM tbl_expense_rollups WHERE profile_id IN (:ids)",
+			"DELETE FROM tbl_expense_tombstones WHERE profile_id IN (:ids)",
+			"DELETE FROM tbl_refresh_tokens WHERE profile_db_id IN (:ids)",
+			"DELETE FROM tbl_profile WHERE id IN (:ids)");
+
+	private final List<Long> profileIds = new CopyOnWriteArrayList<>();
+
+	@Autowired
+	private ProfileService profileService;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private JwtTokenUtil jwtTokenUtil;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	/**
+	 * Profile created by the fixture with a valid access token
+	 */
+	public record TestProfile(ProfileUserDetails user, String token) {
+
+		public String email() {
+			return user.getUsername();
+		}
+
+		public String bearer() {
+			return "Bearer " + token;
+		}
+	}
+
+	/**
+	 * It will create a profile with a unique email and log it in
+	 * @param emailPrefix (start of the email, tells the tests apart in the database)
+	 * @return testProfile
+	 */
+	public TestProfile createProfile(String emailPrefix) {
+		String email = emailPrefix + "-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+		profileService.createProfile(ProfileDTO.builder()
+				.name(emailPrefix + " user")
+				.email(email)
+				.password("password")
+				.build());
+		ProfileUserDetails user = (ProfileUserDetails) userDetailsService.loadUserByUsername(email);
+		profileIds.add(user.getId());
+		return new TestProfile(user, jwtTokenUtil.generateToken(user));
+	}
+
+	/**
+	 * It will create an expense owned by the profile
+	 * @param profile (owner)
+	 * @param name (expense name)
+	 * @param category (expense category)
+	 * @return created expense with its id and version
+	 */
+	public ExpenseDTO createExpense(TestProfile profile, String name, String category) {
+		ExpenseDTO expenseDTO = ExpenseDTO.builder()
+				.name(name)
+				.category(category)
+				.date(Date.valueOf("2024-01-01"))
+				.amount(BigDecimal.ONE)
+				.build();
+		return runAs(profile, () -> expenseService.saveExpenseDetails(expenseDTO));
+	}
+
+	/**
+	 * It will run the work with the profile in the security context, like a request carrying its token
+	 * @param profile (authenticated profile)
+	 * @param work (service calls)
+	 * @return result of the work
+	 */
+	public <T> T runAs(TestProfile profile, Supplier<T> work) {
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(new UsernamePasswordAuthenticationToken(profile.user(), null, profile.user().getAuthorities()));
+		SecurityContextHolder.setContext(context);
+		try {
+			return work.get();
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	/**
+	 * It will delete the profiles created since the last clean up, with their expenses, rollups,
+	 * tombstones and refresh tokens
+	 */
+	public void cleanUp() {
+		if (profileIds.isEmpty()) {
+			return;
+		}
+		Map<String, Object> ids = Map.of("ids", List.copyOf(profileIds));
+		CLEANUP.forEach(statement -> jdbcTemplate.update(statement, ids));
+		profileIds.clear();
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.restapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvUtilTest {
+
+	private static final int MAX_RECORD_CHARS = 64;
+
+	@Test
+	void readsPlainAndQuotedFields() throws IOException {
+		BufferedReader reader = reader("a,b,,c\n\"x,y\",z\n");
+
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).containsExactly("a", "b", "", "c");
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).containsExactly("x,y", "z");
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).isNull();
+	}
+
+	@Test
+	void unescapesDoubledQuotes() throws IOException {
+		BufferedReader reader = reader("\"say \"\"hi\"\"\",\"\"\"\"\n");
+
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).containsExactly("say \"hi\"", "\"");
+	}
+
+	@Test
+	void readsMultiLineFields() throws IOException {
+		BufferedReader reader = reader("\"line 1\r\nline 2\",next\r\nlast,row");
+
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).containsExactly("line 1\nline 2", "next");
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).containsExactly("last", "row");
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).isNull();
+	}
+
+	@Test
+	void escapedValuesReadBack() throws IOException {
+		String value = "a \"quoted\", multi\nline value";
+		BufferedReader reader = reader(CsvUtil.escape(value) + "," + CsvUtil.escape("plain") + "\n");
+
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).containsExactly(value, "plain");
+	}
+
+	@Test
+	void rejectsUnterminatedQuoteAtEndOfInput() throws IOException {
+		BufferedReader reader = reader("ok,row\n\"never closed,x\ny\n");
+
+		assertThat(CsvUtil.readRecord(reader, MAX_RECORD_CHARS)).containsExactly("ok", "row");
+		assertThatThrownBy(() -> CsvUtil.readRecord(reader, MAX_RECORD_CHARS))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("not terminated");
+	}
+
+	@Test
+	void rejectsOversizedRecordAndResumesOnTheNextLine() throws IOException {
+		StringBuilder input = new StringBuilder("\"unterminated");
+		for (int i = 0; i < 10; i++) {
+			input.append("\nfiller line ").append(i);
+		}
+		LineNumberReader reader = new LineNumberReader(new StringReader(input + "\n"));
+
+		assertThatThrownBy(() -> CsvUtil.readRecord(reader, MAX_RECORD_CHARS))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("longer than " + MAX_RECORD_CHARS);
+		// Only up to the end of the line where the cap was hit is consumed
+		List<String> next = CsvUtil.readRecord(reader, MAX_RECORD_CHARS);
+		assertThat(next).hasSize(1);
+		assertThat(next.get(0)).startsWith("filler line ");
+		assertThat(reader.getLineNumber()).isLessThan(11);
+	}
+
+	@Test
+	void readLineRejectsOversizedLinesAndResumes() throws IOException {
+		BufferedReader reader = reader("x".repeat(MAX_RECORD_CHARS + 10) + "\r\n{\"name\":\"ok\"}\n");
+
+		assertThatThrownBy(() -> CsvUtil.readLine(reader, MAX_RECORD_CHARS))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(CsvUtil.readLine(reader, MAX_RECORD_CHARS)).isEqualTo("{\"name\":\"ok\"}");
+		assertThat(CsvUtil.readLine(reader, MAX_RECORD_CHARS)).isNull();
+	}
+
+	private static BufferedReader reader(String input) {
+		return new BufferedReader(new StringReader(input));
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.restapi.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatsTest {
+
+	@AfterEach
+	void end() {
+		QueryStats.end();
+	}
+
+	@Test
+	void collectsOnlyBetweenBeginAndEnd() {
+		assertThat(QueryStats.current()).isNull();
+
+		QueryStats stats = QueryStats.begin();
+
+		assertThat(QueryStats.current()).isSameAs(stats);
+		assertThat(QueryStats.end()).isSameAs(stats);
+		assertThat(QueryStats.current()).isNull();
+	}
+
+	@Test
+	void collapsesInListsOfAnyLengthIntoOneShape() {
+		QueryStats stats = QueryStats.begin();
+
+		stats.statementPrepared("select e.id from tbl_expenses e where e.expense_id in (?,?)");
+		stats.statementPrepared("select e.id from tbl_expenses e where e.expense_id in (?, ?, ?)");
+		stats.statementPrepared("select e.id from tbl_expenses e where e.id=?");
+
+		assertThat(stats.getStatementCount()).isEqualTo(3);
+		Map.Entry<String, Integer> repeated = stats.getMostRepeatedShape();
+		assertThat(repeated.getKey()).isEqualTo("select e.id from tbl_expenses e where e.expense_id in (?...)");
+		assertThat(repeated.getValue()).isEqualTo(2);
+	}
+
+	@Test
+	void keepsSingleBindParentheses() {
+		QueryStats stats = QueryStats.begin();
+
+		stats.statementPrepared("select e.id from tbl_expenses e where e.expense_id in (?)");
+
+		assertThat(stats.getMostRepeatedShape().getKey()).isEqualTo("select e.id from tbl_expenses e where e.expense_id in (?)");
+	}
+
+	@Test
+	void countsBindsOutsideQuotesOnly() throws InterruptedException {
+		QueryStats stats = QueryStats.begin();
+
+		stats.statementPrepared("select e.id from tbl_expenses e where e.note = 'why?' and e.profile_id = ? and e.amount > ?");
+		stats.executionStarted();
+		Thread.sleep(2);
+		stats.executionEnded();
+
+		assertThat(stats.getSlowestBindCount()).isEqualTo(2);
+		assertThat(stats.getSlowestShape()).contains("'why?'");
+		assertThat(stats.getSlowestMillis()).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void ignoresExecutionEndWithoutStart() {
+		QueryStats stats = QueryStats.begin();
+
+		stats.statementPrepared("select 1");
+		stats.executionEnded();
+
+		assertThat(stats.getTotalMillis()).isZero();
+		assertThat(stats.getSlowestShape()).isNull();
+	}
+}
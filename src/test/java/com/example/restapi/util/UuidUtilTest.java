@@ -0,0 +1,73 @@
+package com.example.restapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidUtilTest {
+
+	/**
+	 * SELECT HEX(UUID_TO_BIN('6ccd780c-baba-1026-9564-5b8c656024db')) on MySQL 8.0, the byte order the
+	 * V2__binary_uuid_ids migration converts the existing ids with
+	 */
+	private static final String CANONICAL = "6ccd780c-baba-1026-9564-5b8c656024db";
+	private static final String UUID_BYTES = "6CCD780CBABA102695645B8C656024DB";
+
+	@Test
+	void toBytesMatchesMysqlUuidToBin() {
+		assertThat(HexFormat.of().withUpperCase().formatHex(UuidUtil.toBytes(CANONICAL))).isEqualTo(UUID_BYTES);
+	}
+
+	@Test
+	void toBytesIgnoresCase() {
+		assertThat(UuidUtil.toBytes(CANONICAL.toUpperCase())).isEqualTo(UuidUtil.toBytes(CANONICAL));
+	}
+
+	@Test
+	void fromBytesReadsMysqlUuidToBin() {
+		assertThat(UuidUtil.fromBytes(HexFormat.of().parseHex(UUID_BYTES))).isEqualTo(CANONICAL);
+	}
+
+	@Test
+	void rejectsNonCanonicalIds() {
+		assertThat(UuidUtil.toBytes((String) null)).isNull();
+		assertThat(UuidUtil.toBytes("42")).isNull();
+		assertThat(UuidUtil.toBytes("6ccd780c-baba-1026-9564-5b8c656024dz")).isNull();
+		assertThat(UuidUtil.toBytes(List.of(CANONICAL, "42"))).hasSize(1);
+	}
+
+	@Test
+	void newTimeOrderedIdRoundTrips() {
+		String id = UuidUtil.newTimeOrderedId();
+
+		assertThat(id).hasSize(36).isLowerCase();
+		assertThat(UuidUtil.fromBytes(UuidUtil.toBytes(id))).isEqualTo(id);
+	}
+
+	@Test
+	void newTimeOrderedIdIsVersion7WithTheCurrentTime() {
+		long before = System.currentTimeMillis();
+		String id = UuidUtil.newTimeOrderedId();
+		long after = System.currentTimeMillis();
+
+		UUID parsed = UUID.fromString(id);
+		assertThat(parsed.version()).isEqualTo(7);
+		assertThat(parsed.variant()).isEqualTo(2);
+		long millis = ByteBuffer.wrap(UuidUtil.toBytes(id)).getLong() >>> 16;
+		assertThat(millis).isBetween(before, after);
+	}
+
+	@Test
+	void newTimeOrderedIdsSortByCreationTime() throws InterruptedException {
+		String first = UuidUtil.newTimeOrderedId();
+		Thread.sleep(2);
+		String second = UuidUtil.newTimeOrderedId();
+
+		assertThat(first).isLessThan(second);
+	}
+}